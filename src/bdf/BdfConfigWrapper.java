@@ -10,6 +10,10 @@ public class BdfConfigWrapper implements BdfConfig{
         this.bdfConfig = bdfConfig;
     }
 
+    public BdfConfig getWrappedConfig() {
+        return bdfConfig;
+    }
+
     @Override
     public double getDurationOfDataRecord() {
         return bdfConfig.getDurationOfDataRecord();
@@ -0,0 +1,84 @@
+package bdf;
+
+/**
+ * Joins and decimates data records straight from their bytes (without decoding
+ * full rate samples to int arrays). Every resulting sample is the average of divider
+ * successive original samples (the same as FrequencyDividingPreFilter gives).
+ */
+class BdfDecimator {
+    private final int numberOfBytesInDataFormat;
+    private final int[] numberOfSamplesInEachDataRecord;
+    private final int[] dividers;
+    private final int numberOfRecordsToJoin;
+    private final int[] outputSignalOffsets; // in samples
+    private final BdfRecordPool outputRecordPool;
+
+    private final long[] sums;
+    private final int[] counters;
+    private final int[] outputIndexes;
+    private BdfRecord outputRecord;
+    private int recordsCounter;
+
+    BdfDecimator(DecimatedBdfConfig decimatedBdfConfig, BdfConfig originalBdfConfig) {
+        numberOfBytesInDataFormat = originalBdfConfig.getNumberOfBytesInDataFormat();
+        SignalConfig[] signalConfigs = originalBdfConfig.getSignalConfigs();
+        SignalConfig[] outputSignalConfigs = decimatedBdfConfig.getSignalConfigs();
+        numberOfSamplesInEachDataRecord = new int[signalConfigs.length];
+        outputSignalOffsets = new int[signalConfigs.length];
+        int outputRecordSamples = 0;
+        for (int i = 0; i < signalConfigs.length; i++) {
+            numberOfSamplesInEachDataRecord[i] = signalConfigs[i].getNumberOfSamplesInEachDataRecord();
+            outputSignalOffsets[i] = outputRecordSamples;
+            outputRecordSamples += outputSignalConfigs[i].getNumberOfSamplesInEachDataRecord();
+        }
+        dividers = decimatedBdfConfig.getDividers();
+        numberOfRecordsToJoin = decimatedBdfConfig.getNumberOfRecordsToJoin();
+        outputRecordPool = new BdfRecordPool(outputRecordSamples * numberOfBytesInDataFormat);
+        sums = new long[signalConfigs.length];
+        counters = new int[signalConfigs.length];
+        outputIndexes = new int[signalConfigs.length];
+    }
+
+    /**
+     * @return resulting data record (that must be released) when numberOfRecordsToJoin
+     * original records are added or null
+     */
+    BdfRecord add(byte[] dataRecord) {
+        if (outputRecord == null) {
+            outputRecord = outputRecordPool.acquire();
+            for (int i = 0; i < outputIndexes.length; i++) {
+                outputIndexes[i] = outputSignalOffsets[i];
+            }
+        }
+        byte[] output = outputRecord.getData();
+        int shift = 32 - 8 * numberOfBytesInDataFormat;
+        int byteIndex = 0;
+        for (int signal = 0; signal < numberOfSamplesInEachDataRecord.length; signal++) {
+            int divider = dividers[signal];
+            for (int i = 0; i < numberOfSamplesInEachDataRecord[signal]; i++) {
+                int value = 0;
+                for (int b = numberOfBytesInDataFormat - 1; b >= 0; b--) {
+                    value = (value << 8) | (dataRecord[byteIndex + b] & 0xFF);
+                }
+                byteIndex += numberOfBytesInDataFormat;
+                sums[signal] += (value << shift) >> shift;
+                if (++counters[signal] == divider) {
+                    int average = (int) (sums[signal] / divider);
+                    int outputByteIndex = outputIndexes[signal]++ * numberOfBytesInDataFormat;
+                    for (int b = 0; b < numberOfBytesInDataFormat; b++) {
+                        output[outputByteIndex + b] = (byte) (average >> (8 * b));
+                    }
+                    sums[signal] = 0;
+                    counters[signal] = 0;
+                }
+            }
+        }
+        if (++recordsCounter < numberOfRecordsToJoin) {
+            return null;
+        }
+        recordsCounter = 0;
+        BdfRecord result = outputRecord;
+        outputRecord = null;
+        return result;
+    }
+}
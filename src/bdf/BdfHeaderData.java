@@ -13,7 +13,10 @@ import java.util.Date;
  * Created by Al on 03.11.14.
  */
 public class BdfHeaderData extends BdfConfigWrapper {
+    // extensions of the files BdfWriter writes
     public static final String[] FILE_EXTENSIONS = {"bdf", "edf"};
+    // extensions of the files that could be read (bdfz files are read by BdfzReader)
+    public static final String[] READABLE_FILE_EXTENSIONS = {"bdf", "edf", BdfzWriter.FILE_EXTENSION};
     private long startTime = -1;
     private String patientIdentification = "Default patient";
     private String recordingIdentification = "Default record";
@@ -35,11 +38,19 @@ public class BdfHeaderData extends BdfConfigWrapper {
 
 
     public void setFile(File parent, String filename) {
+        setFile(parent, filename, FILE_EXTENSIONS);
+    }
+
+    /**
+     * @param fileExtensions allowed file extensions. If filename has another one
+     *                       it is replaced with the first of them
+     */
+    public void setFile(File parent, String filename, String[] fileExtensions) {
         if(parent.isDirectory()) {
-            file = new File(parent, normalizeFilename(filename));
+            file = new File(parent, normalizeFilename(filename, fileExtensions));
         }
         else  {
-            file = new File(parent.getParent(), normalizeFilename(filename));
+            file = new File(parent.getParent(), normalizeFilename(filename, fileExtensions));
         }
     }
 
@@ -124,9 +135,9 @@ public class BdfHeaderData extends BdfConfigWrapper {
         return BdfNormalizer.getNormalizedSignalsFrequencies(this);
     }
 
-    private String normalizeFilename(@Nullable String filename) {
+    private String normalizeFilename(@Nullable String filename, String[] fileExtensions) {
         String defaultFilename = new SimpleDateFormat("dd-MM-yyyy_HH-mm").format(new Date(System.currentTimeMillis()))
-                + "." + FILE_EXTENSIONS[0];
+                + "." + fileExtensions[0];
 
         // if filename is default filename
         if (filename == null || filename.isEmpty()) {
@@ -136,18 +147,18 @@ public class BdfHeaderData extends BdfConfigWrapper {
 
         // if filename has no extension
         if (filename.lastIndexOf('.') == -1) {
-            filename = filename.concat(".").concat(FILE_EXTENSIONS[0]);
+            filename = filename.concat(".").concat(fileExtensions[0]);
             return filename;
         }
-        // if  extension  match with one from given FILE_EXTENSIONS
+        // if  extension  match with one from given fileExtensions
         // (?i) makes it case insensitive (catch BDF as well as bdf)
-        for (String ext : FILE_EXTENSIONS) {
+        for (String ext : fileExtensions) {
             if (filename.matches("(?i).*\\." + ext)) {
                 return filename;
             }
         }
-        // If the extension match with NONE from given FILE_EXTENSIONS. We need to replace it
-        filename = filename.substring(0, filename.lastIndexOf(".") + 1).concat(FILE_EXTENSIONS[0]);
+        // If the extension match with NONE from given fileExtensions. We need to replace it
+        filename = filename.substring(0, filename.lastIndexOf(".") + 1).concat(fileExtensions[0]);
         return filename;
     }
 
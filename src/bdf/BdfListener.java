@@ -4,6 +4,18 @@ package bdf;
  *
  */
 public interface BdfListener {
+    /**
+     * The array is valid only during the call (providers reuse it),
+     * listeners that keep the data must copy them
+     */
     public void onDataRecordReceived(byte[] bdfDataRecord);
     public void onStopReading();
+
+    /**
+     * Pooled version of onDataRecordReceived. By default passes the record data to
+     * onDataRecordReceived(byte[]). To keep the record after the call retain() it
+     */
+    default void onDataRecordReceived(BdfRecord bdfDataRecord) {
+        onDataRecordReceived(bdfDataRecord.getData());
+    }
 }
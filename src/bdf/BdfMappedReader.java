@@ -0,0 +1,213 @@
+package bdf;
+
+import dreamrec.ApplicationException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+/**
+ * Random access BdfProvider. Data records are read directly from the memory mapped file
+ * so any record (or range of records) can be obtained without reading the records before it.
+ * Multi-GB files are mapped by windows of whole data records (no more than MAX_WINDOW_SIZE bytes)
+ */
+public class BdfMappedReader implements BdfProvider {
+    private static final Log log = LogFactory.getLog(BdfMappedReader.class);
+    private static final long MAX_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private RandomAccessFile file;
+    private FileChannel fileChannel;
+    private BdfHeaderData bdfHeaderData;
+    private long numberOfBytesInHeader;
+    private int dataRecordSize;
+    private int numberOfDataRecords;
+    private int recordsInWindow;
+
+    private MappedByteBuffer window;
+    private int windowFirstRecord = -1;
+    private int windowNumberOfRecords;
+
+    private volatile boolean isFileOpen = false;
+    private int startRecord;
+    private ArrayList<BdfListener> bdfListenersList = new ArrayList<BdfListener>();
+
+    public BdfMappedReader(File file) throws ApplicationException {
+        try {
+            bdfHeaderData = BdfHeaderReader.readBdfHeader(file);
+            dataRecordSize = getTotalNumberOfBytesInDataRecord();
+            numberOfBytesInHeader = 256 + 256 * bdfHeaderData.getNumberOfSignals();
+            this.file = new RandomAccessFile(file, "r");
+            fileChannel = this.file.getChannel();
+            // number of data records in header could be -1 (unknown) or wrong if recording was interrupted
+            numberOfDataRecords = (int) ((fileChannel.size() - numberOfBytesInHeader) / dataRecordSize);
+            if (numberOfDataRecords < 0) {
+                numberOfDataRecords = 0;
+            }
+            recordsInWindow = (int) Math.max(1, MAX_WINDOW_SIZE / dataRecordSize);
+            isFileOpen = true;
+        } catch (IOException e) {
+            log.error(e);
+            throw new ApplicationException("Error while opening file " + file.getName());
+        }
+    }
+
+    private int getTotalNumberOfBytesInDataRecord() {
+        int totalNumberOfSamplesInEachDataRecord = 0;
+        SignalConfig[] signalConfigs = bdfHeaderData.getSignalConfigs();
+        for (int signalNumber = 0; signalNumber < bdfHeaderData.getNumberOfSignals(); signalNumber++) {
+            totalNumberOfSamplesInEachDataRecord += signalConfigs[signalNumber].getNumberOfSamplesInEachDataRecord();
+        }
+        return totalNumberOfSamplesInEachDataRecord * bdfHeaderData.getNumberOfBytesInDataFormat();
+    }
+
+    public int getNumberOfDataRecords() {
+        return numberOfDataRecords;
+    }
+
+    public int getDataRecordSize() {
+        return dataRecordSize;
+    }
+
+    /**
+     * Set the data record from which startReading() begins to send records to the listeners
+     */
+    public void setStartRecord(int recordNumber) {
+        checkRecordNumber(recordNumber);
+        startRecord = recordNumber;
+    }
+
+    /**
+     * Set the time (in seconds from the recording start) from which startReading() begins
+     */
+    public void setStartTime(double seconds) {
+        int recordNumber = (int) (seconds / bdfHeaderData.getDurationOfDataRecord());
+        setStartRecord(Math.max(0, Math.min(recordNumber, numberOfDataRecords - 1)));
+    }
+
+    public byte[] readDataRecord(int recordNumber) throws ApplicationException {
+        byte[] dataRecord = new byte[dataRecordSize];
+        readDataRecord(recordNumber, dataRecord, 0);
+        return dataRecord;
+    }
+
+    /**
+     * Copy data record with the given number to the dest array starting from the given offset
+     */
+    public synchronized void readDataRecord(int recordNumber, byte[] dest, int offset) throws ApplicationException {
+        checkRecordNumber(recordNumber);
+        mapWindow(recordNumber);
+        window.position((recordNumber - windowFirstRecord) * dataRecordSize);
+        window.get(dest, offset, dataRecordSize);
+    }
+
+    /**
+     * @return array of numberOfRecords data records starting from the record fromRecord
+     */
+    public byte[][] readDataRecords(int fromRecord, int numberOfRecords) throws ApplicationException {
+        checkRecordNumber(fromRecord);
+        checkRecordNumber(fromRecord + numberOfRecords - 1);
+        byte[][] dataRecords = new byte[numberOfRecords][];
+        for (int i = 0; i < numberOfRecords; i++) {
+            dataRecords[i] = readDataRecord(fromRecord + i);
+        }
+        return dataRecords;
+    }
+
+    private void checkRecordNumber(int recordNumber) {
+        if (recordNumber < 0 || recordNumber >= numberOfDataRecords) {
+            String msg = "Data record number = " + recordNumber + " Expected: 0 <= number < " + numberOfDataRecords;
+            throw new IndexOutOfBoundsException(msg);
+        }
+    }
+
+    private void mapWindow(int recordNumber) throws ApplicationException {
+        if (!isFileOpen) {
+            throw new ApplicationException("File is closed");
+        }
+        if (window != null && recordNumber >= windowFirstRecord && recordNumber < windowFirstRecord + windowNumberOfRecords) {
+            return;
+        }
+        windowFirstRecord = recordNumber;
+        windowNumberOfRecords = Math.min(recordsInWindow, numberOfDataRecords - recordNumber);
+        long position = numberOfBytesInHeader + (long) recordNumber * dataRecordSize;
+        try {
+            window = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, (long) windowNumberOfRecords * dataRecordSize);
+        } catch (IOException e) {
+            log.error(e);
+            window = null;
+            throw new ApplicationException("Error while reading from file " + bdfHeaderData.getFile().getName(), e);
+        }
+    }
+
+    public void readData() {
+        try {
+            BdfRecordPool recordPool = new BdfRecordPool(dataRecordSize);
+            for (int recordNumber = startRecord; isFileOpen && recordNumber < numberOfDataRecords; recordNumber++) {
+                BdfRecord dataRecord = recordPool.acquire();
+                try {
+                    readDataRecord(recordNumber, dataRecord.getData(), 0);
+                } catch (ApplicationException e) {
+                    dataRecord.release();
+                    throw e;
+                }
+                BdfRecordPool.notifyListeners(bdfListenersList, dataRecord);
+            }
+        } catch (ApplicationException e) {
+            log.error(e);
+        }
+        stopReading();
+    }
+
+    @Override
+    public void startReading() {
+        if (SwingUtilities.isEventDispatchThread()) { // if file reading starts from gui we read it in new Thread
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    readData();
+                }
+            }).start();
+        } else {
+            readData(); // if file reading starts from non-gui Thread we read it in the same thread
+        }
+    }
+
+    @Override
+    public void stopReading() {
+        if (isFileOpen) {
+            isFileOpen = false;
+            synchronized (this) {
+                window = null;
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    log.error(e);
+                }
+            }
+            for (BdfListener bdfListener : bdfListenersList) {
+                bdfListener.onStopReading();
+            }
+        }
+    }
+
+    @Override
+    public void addBdfDataListener(BdfListener bdfListener) {
+        bdfListenersList.add(bdfListener);
+    }
+
+    @Override
+    public void removeBdfDataListener(BdfListener bdfListener) {
+        bdfListenersList.remove(bdfListener);
+    }
+
+    @Override
+    public BdfHeaderData getBdfConfig() {
+        return bdfHeaderData;
+    }
+}
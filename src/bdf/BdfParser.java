@@ -6,11 +6,18 @@ package bdf;
 public class BdfParser {
     private int numberOfBytesInDataFormat;
     private int[] signalNumberOfSamplesInEachDataRecords;
+    private int[] signalStartIndexesInDataRecord;
 
 
     public BdfParser(int numberOfBytesInDataFormat, int[] signalNumberOfSamplesInEachDataRecords) {
         this.numberOfBytesInDataFormat = numberOfBytesInDataFormat;
         this.signalNumberOfSamplesInEachDataRecords = signalNumberOfSamplesInEachDataRecords;
+        signalStartIndexesInDataRecord = new int[signalNumberOfSamplesInEachDataRecords.length];
+        int startIndex = 0;
+        for (int i = 0; i < signalNumberOfSamplesInEachDataRecords.length; i++) {
+            signalStartIndexesInDataRecord[i] = startIndex;
+            startIndex += signalNumberOfSamplesInEachDataRecords[i];
+        }
     }
 
     public static byte[] intArrayToByteArray(int[] intData, int numberOfBytesPerInt) {
@@ -39,10 +46,10 @@ public class BdfParser {
                     result[index] = bytesToSignedInt(byteData[i]);
                     break;
                 case 2:
-                    result[index] = bytesToSignedInt(byteData[i], byteData[i + 1]);
+                    result[index] = bytes2ToSignedInt(byteData, i);
                     break;
                 case 3:
-                     result[index] = bytesToSignedInt(byteData[i], byteData[i + 1],  byteData[i + 2]);
+                     result[index] = bytes3ToSignedInt(byteData, i);
                      break;
                 default:
                     result[index] = bytesToSignedInt(byteData[i], byteData[i + 1],  byteData[i + 2], byteData[i + 3]);
@@ -55,11 +62,10 @@ public class BdfParser {
 
     public int parseDataRecordSample(byte[] bdfDataRecord, int sampleNumber) {
         if (numberOfBytesInDataFormat == 3) {  //bdf format
-            return bytesToSignedInt(bdfDataRecord[sampleNumber * 3],
-                    bdfDataRecord[sampleNumber * 3 + 1], bdfDataRecord[sampleNumber * 3 + 2]);
+            return bytes3ToSignedInt(bdfDataRecord, sampleNumber * 3);
         }
         if (numberOfBytesInDataFormat == 2) {   // edf format
-            return bytesToSignedInt(bdfDataRecord[sampleNumber * 2], bdfDataRecord[sampleNumber * 2 + 1]);
+            return bytes2ToSignedInt(bdfDataRecord, sampleNumber * 2);
         }
         return 0;
     }
@@ -74,21 +80,63 @@ public class BdfParser {
     }
 
     public int[] parseDataRecordSignal(byte[] bdfDataRecord, int signalNumber) {
+        int[] result = new int[signalNumberOfSamplesInEachDataRecords[signalNumber]];
+        parseDataRecordSignal(bdfDataRecord, signalNumber, result, 0);
+        return result;
+    }
+
+    /**
+     * Decode signal samples from the data record to the given (reusable) array without any allocation
+     *
+     * @param dest       array to write decoded samples to
+     * @param destOffset index in dest from which decoded samples are written
+     * @return number of decoded samples
+     */
+    public int parseDataRecordSignal(byte[] bdfDataRecord, int signalNumber, int[] dest, int destOffset) {
         int numberOfSamples = signalNumberOfSamplesInEachDataRecords[signalNumber];
-        int startIndex = getSignalStartIndexInDataRecord(signalNumber);
-        int[] result = new int[numberOfSamples];
-        for (int i = 0; i < numberOfSamples; i++) {
-            result[i] = parseDataRecordSample(bdfDataRecord, startIndex + i);
+        int byteIndex = signalStartIndexesInDataRecord[signalNumber] * numberOfBytesInDataFormat;
+        int destEnd = destOffset + numberOfSamples;
+        if (numberOfBytesInDataFormat == 3) {  //bdf format
+            for (int i = destOffset; i < destEnd; i++) {
+                dest[i] = (bdfDataRecord[byteIndex + 2] << 16) | (bdfDataRecord[byteIndex + 1] & 0xFF) << 8 | (bdfDataRecord[byteIndex] & 0xFF);
+                byteIndex += 3;
+            }
+        } else if (numberOfBytesInDataFormat == 2) {  // edf format
+            for (int i = destOffset; i < destEnd; i++) {
+                dest[i] = (bdfDataRecord[byteIndex + 1] << 8) | (bdfDataRecord[byteIndex] & 0xFF);
+                byteIndex += 2;
+            }
+        } else {
+            for (int i = destOffset; i < destEnd; i++) {
+                dest[i] = 0;
+            }
         }
-        return result;
+        return numberOfSamples;
     }
 
-    private int getSignalStartIndexInDataRecord(int signalNumber) {
-        int startIndex = 0;
-        for (int i = 0; i < signalNumber; i++) {
-            startIndex += signalNumberOfSamplesInEachDataRecords[i];
+    public int getSignalNumberOfSamples(int signalNumber) {
+        return signalNumberOfSamplesInEachDataRecords[signalNumber];
+    }
+
+    /**
+     * @return max number of samples in each data record among all signals
+     * (size of the buffer enough to decode any signal)
+     */
+    public int getMaxSignalNumberOfSamples() {
+        int max = 0;
+        for (int numberOfSamples : signalNumberOfSamplesInEachDataRecords) {
+            max = Math.max(max, numberOfSamples);
         }
-        return startIndex;
+        return max;
+    }
+
+    /* Byte order: LITTLE_ENDIAN. Unlike varargs bytesToSignedInt(byte...) do not allocate  */
+    private static int bytes3ToSignedInt(byte[] b, int index) {
+        return (b[index + 2] << 16) | (b[index + 1] & 0xFF) << 8 | (b[index] & 0xFF);
+    }
+
+    private static int bytes2ToSignedInt(byte[] b, int index) {
+        return (b[index + 1] << 8) | (b[index] & 0xFF);
     }
 
 
@@ -10,6 +10,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class BdfReader implements BdfProvider {
     private static final Log log = LogFactory.getLog(BdfReader.class);
@@ -18,6 +19,14 @@ public class BdfReader implements BdfProvider {
     private int BUFFER_SIZE = 6 * 1028; // It is best to use buffer sizes that are multiples of 1024 bytes
     private boolean isFileOpen = false;
     private int totalNumberOfSamplesInEachDataRecord;
+    private BdfRecordPool recordPool;
+    private int numberOfDataRecords; // calculated from the file size
+    // time window [startRecord, endRecord) and decimation
+    private int startRecord;
+    private int endRecord = -1; // if < 0 - read till the end of file
+    private int[] dividers;
+    private DecimatedBdfConfig decimatedBdfConfig;
+    private BdfHeaderData resultingBdfHeaderData;
 
 
     private ArrayList<BdfListener> bdfListenersList = new ArrayList<BdfListener>();
@@ -27,8 +36,12 @@ public class BdfReader implements BdfProvider {
         try {
             bdfHeaderData = BdfHeaderReader.readBdfHeader(file);
             totalNumberOfSamplesInEachDataRecord = getTotalNumberOfBytesInDataRecord();
+            recordPool = new BdfRecordPool(totalNumberOfSamplesInEachDataRecord);
             fileInputStream = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
             int numberOfBytesInHeader = 256 + 256 * bdfHeaderData.getNumberOfSignals();
+            numberOfDataRecords = (int) Math.max(0, (file.length() - numberOfBytesInHeader) / totalNumberOfSamplesInEachDataRecord);
+            // number of data records in header could be -1 (unknown) or wrong if recording was interrupted
+            bdfHeaderData.setNumberOfDataRecords(numberOfDataRecords);
             if(fileInputStream.skip(numberOfBytesInHeader) == numberOfBytesInHeader) {
                 isFileOpen = true;
             } else {
@@ -51,14 +64,97 @@ public class BdfReader implements BdfProvider {
     }
 
 
+    /**
+     * Read only data records of the time window [startSeconds, endSeconds) (from the recording start).
+     * Reading starts straight from the first record of the window. Must be called before startReading()
+     */
+    public void setTimeWindow(double startSeconds, double endSeconds) {
+        double durationOfDataRecord = bdfHeaderData.getDurationOfDataRecord();
+        startRecord = (int) Math.max(0, Math.min(numberOfDataRecords, Math.floor(startSeconds / durationOfDataRecord)));
+        endRecord = (int) Math.max(startRecord, Math.min(numberOfDataRecords, Math.ceil(endSeconds / durationOfDataRecord)));
+        resultingBdfHeaderData = null;
+    }
+
+    /**
+     * Deliver signals with the given frequencies (0 - signal frequency is not changed).
+     * Samples are averaged while decoding and if necessary several data records are joined
+     * so that every resulting record has an integer number of samples of every signal.
+     * getBdfConfig() returns the config of the resulting records. Must be called before startReading()
+     *
+     * @throws ApplicationException if the original signal frequency is not divisible by the given one
+     */
+    public void setSignalsFrequencies(int[] frequencies) throws ApplicationException {
+        int[] signalsFrequencies = BdfNormalizer.getNormalizedSignalsFrequencies(bdfHeaderData);
+        int[] dividers = new int[signalsFrequencies.length];
+        boolean isDecimation = false;
+        for (int i = 0; i < dividers.length; i++) {
+            dividers[i] = 1;
+            if (i < frequencies.length && frequencies[i] > 0) {
+                if (signalsFrequencies[i] % frequencies[i] != 0) {
+                    String errorMsg = "Frequency= " + signalsFrequencies[i] + " is not divisible by " + frequencies[i];
+                    throw new ApplicationException(errorMsg);
+                }
+                dividers[i] = signalsFrequencies[i] / frequencies[i];
+                isDecimation = isDecimation || dividers[i] > 1;
+            }
+        }
+        this.dividers = isDecimation ? dividers : null;
+        resultingBdfHeaderData = null;
+    }
+
+    private int getNumberOfRecordsToJoin() {
+        int numberOfRecordsToJoin = 1;
+        if (dividers != null) {
+            SignalConfig[] signalConfigs = bdfHeaderData.getSignalConfigs();
+            for (int i = 0; i < dividers.length; i++) {
+                int recordsToJoin = dividers[i] / gcd(signalConfigs[i].getNumberOfSamplesInEachDataRecord(), dividers[i]);
+                numberOfRecordsToJoin = numberOfRecordsToJoin / gcd(numberOfRecordsToJoin, recordsToJoin) * recordsToJoin;
+            }
+        }
+        return numberOfRecordsToJoin;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int temp = a % b;
+            a = b;
+            b = temp;
+        }
+        return a;
+    }
+
     public void readData() {
-        byte[] dataRecord = new byte[totalNumberOfSamplesInEachDataRecord];
         try {
-            while (isFileOpen &&  fileInputStream.read(dataRecord) == totalNumberOfSamplesInEachDataRecord) {
-                for (BdfListener bdfListener : bdfListenersList) {
-                    bdfListener.onDataRecordReceived(dataRecord);
+            long bytesToSkip = (long) startRecord * totalNumberOfSamplesInEachDataRecord;
+            while (bytesToSkip > 0) { // skip is done by seek so only the time window is read
+                long skipped = fileInputStream.skip(bytesToSkip);
+                if (skipped <= 0) {
+                    break;
+                }
+                bytesToSkip -= skipped;
+            }
+            BdfDecimator decimator = null;
+            if (dividers != null) {
+                getBdfConfig();
+                decimator = new BdfDecimator(decimatedBdfConfig, bdfHeaderData);
+            }
+            int recordNumber = startRecord;
+            while (isFileOpen && (endRecord < 0 || recordNumber < endRecord)) {
+                BdfRecord dataRecord = recordPool.acquire();
+                if (fileInputStream.read(dataRecord.getData()) != totalNumberOfSamplesInEachDataRecord) {
+                    dataRecord.release();
+                    break;
+                }
+                recordNumber++;
+                if (decimator == null) {
+                    BdfRecordPool.notifyListeners(bdfListenersList, dataRecord);
+                } else {
+                    BdfRecord resultingRecord = decimator.add(dataRecord.getData());
+                    dataRecord.release();
+                    if (resultingRecord != null) {
+                        BdfRecordPool.notifyListeners(bdfListenersList, resultingRecord);
+                    }
                 }
-                dataRecord = new byte[totalNumberOfSamplesInEachDataRecord];
             }
             stopReading();
         } catch (IOException e) {
@@ -107,9 +203,33 @@ public class BdfReader implements BdfProvider {
         bdfListenersList.remove(bdfListener);
     }
 
+    /**
+     * @return header data of the delivered records (if time window or signals frequencies
+     * are set they differ from the file header data)
+     */
     @Override
     public BdfHeaderData getBdfConfig() {
-        return bdfHeaderData;
+        if (dividers == null && endRecord < 0) {
+            return bdfHeaderData;
+        }
+        if (resultingBdfHeaderData == null) {
+            int numberOfRecordsToJoin = getNumberOfRecordsToJoin();
+            int[] resultingDividers = dividers;
+            if (resultingDividers == null) {
+                resultingDividers = new int[bdfHeaderData.getNumberOfSignals()];
+                Arrays.fill(resultingDividers, 1);
+            }
+            decimatedBdfConfig = new DecimatedBdfConfig(bdfHeaderData, numberOfRecordsToJoin, resultingDividers);
+            resultingBdfHeaderData = new BdfHeaderData(decimatedBdfConfig);
+            resultingBdfHeaderData.setPatientIdentification(bdfHeaderData.getPatientIdentification());
+            resultingBdfHeaderData.setRecordingIdentification(bdfHeaderData.getRecordingIdentification());
+            long startTimeOffset = Math.round(startRecord * bdfHeaderData.getDurationOfDataRecord() * 1000);
+            resultingBdfHeaderData.setStartTime(bdfHeaderData.getStartTime() + startTimeOffset);
+            int lastRecord = endRecord < 0 ? numberOfDataRecords : endRecord;
+            resultingBdfHeaderData.setNumberOfDataRecords((lastRecord - startRecord) / numberOfRecordsToJoin);
+            resultingBdfHeaderData.setFile(bdfHeaderData.getFile());
+        }
+        return resultingBdfHeaderData;
     }
 
 }
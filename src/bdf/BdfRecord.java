@@ -0,0 +1,51 @@
+package bdf;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference counted data record taken from the BdfRecordPool.
+ * The provider holds one reference while it notifies listeners and releases it after.
+ * A listener that wants to keep the record after onDataRecordReceived returns
+ * must call retain() and later release(). When the last reference is released
+ * the record goes back to its pool and its data may be overwritten.
+ */
+public final class BdfRecord {
+    private final byte[] data;
+    private final BdfRecordPool pool;
+    private final AtomicInteger referenceCount = new AtomicInteger();
+
+    BdfRecord(byte[] data, BdfRecordPool pool) {
+        this.data = data;
+        this.pool = pool;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public BdfRecord retain() throws IllegalStateException {
+        while (true) {
+            int count = referenceCount.get();
+            if (count <= 0) {
+                throw new IllegalStateException("Record is already released");
+            }
+            if (referenceCount.compareAndSet(count, count + 1)) {
+                return this;
+            }
+        }
+    }
+
+    public void release() throws IllegalStateException {
+        int count = referenceCount.decrementAndGet();
+        if (count == 0) {
+            pool.recycle(this);
+        } else if (count < 0) {
+            referenceCount.incrementAndGet();
+            throw new IllegalStateException("Record is already released");
+        }
+    }
+
+    void init() {
+        referenceCount.set(1);
+    }
+}
@@ -0,0 +1,56 @@
+package bdf;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Pool of equal size data records. Released records are reused so in steady state
+ * the acquisition path allocates nothing (array based queue does not allocate on offer).
+ * If more records are in use than the pool keeps, extra records are simply garbage collected.
+ */
+public class BdfRecordPool {
+    private static final int DEFAULT_MAX_POOLED_RECORDS = 64;
+    private final int recordSize;
+    private final ArrayBlockingQueue<BdfRecord> freeRecords;
+
+    public BdfRecordPool(int recordSize) {
+        this(recordSize, DEFAULT_MAX_POOLED_RECORDS);
+    }
+
+    public BdfRecordPool(int recordSize, int maxPooledRecords) {
+        this.recordSize = recordSize;
+        freeRecords = new ArrayBlockingQueue<BdfRecord>(maxPooledRecords);
+    }
+
+    /**
+     * @return record with reference count 1. Its data are not cleared
+     */
+    public BdfRecord acquire() {
+        BdfRecord record = freeRecords.poll();
+        if (record == null) {
+            record = new BdfRecord(new byte[recordSize], this);
+        }
+        record.init();
+        return record;
+    }
+
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    void recycle(BdfRecord record) {
+        freeRecords.offer(record);
+    }
+
+    /**
+     * Deliver the record to all listeners and release the provider reference
+     */
+    public static void notifyListeners(Iterable<BdfListener> listeners, BdfRecord record) {
+        try {
+            for (BdfListener listener : listeners) {
+                listener.onDataRecordReceived(record);
+            }
+        } finally {
+            record.release();
+        }
+    }
+}
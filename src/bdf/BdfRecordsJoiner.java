@@ -12,7 +12,8 @@ public class BdfRecordsJoiner implements BdfProvider, BdfListener {
     private int numberOfRecordsToJoin;
     private ArrayList<BdfListener> listeners = new ArrayList<BdfListener>();
     private int recordsCounter;
-    private byte[] resultingBdfDataRecords;
+    private BdfRecordPool recordPool;
+    private BdfRecord resultingBdfDataRecords;
     private int numberOfBytesInDataFormat;
     private int resultingBdfDataRecordLength;
 
@@ -26,7 +27,7 @@ public class BdfRecordsJoiner implements BdfProvider, BdfListener {
             resultingBdfDataRecordLength += signalConfig.getNumberOfSamplesInEachDataRecord();
         }
         resultingBdfDataRecordLength = resultingBdfDataRecordLength * numberOfRecordsToJoin * numberOfBytesInDataFormat;
-        resultingBdfDataRecords = new byte[resultingBdfDataRecordLength];
+        recordPool = new BdfRecordPool(resultingBdfDataRecordLength);
     }
 
     @Override
@@ -41,6 +42,9 @@ public class BdfRecordsJoiner implements BdfProvider, BdfListener {
 
     @Override
     public void onDataRecordReceived(byte[] bdfDataRecord) {
+        if (recordsCounter == 0) {
+            resultingBdfDataRecords = recordPool.acquire();
+        }
         recordsCounter++;
         int pointer = 0;
         SignalConfig[] signalConfigs = bdfProvider.getBdfConfig().getSignalConfigs();
@@ -48,15 +52,14 @@ public class BdfRecordsJoiner implements BdfProvider, BdfListener {
             int numberOfSamples = signalConfigs[i].getNumberOfSamplesInEachDataRecord();
             int toIndex = (pointer * numberOfRecordsToJoin + numberOfSamples * (recordsCounter - 1)) * numberOfBytesInDataFormat;
             int fromIndex = pointer * numberOfBytesInDataFormat;
-            System.arraycopy(bdfDataRecord, fromIndex, resultingBdfDataRecords, toIndex, numberOfSamples * numberOfBytesInDataFormat);
+            System.arraycopy(bdfDataRecord, fromIndex, resultingBdfDataRecords.getData(), toIndex, numberOfSamples * numberOfBytesInDataFormat);
             pointer += numberOfSamples;
         }
         if (recordsCounter == numberOfRecordsToJoin) {
-            for (BdfListener listener : listeners) {
-                listener.onDataRecordReceived(resultingBdfDataRecords);
-            }
-            resultingBdfDataRecords = new byte[resultingBdfDataRecordLength];
             recordsCounter = 0;
+            BdfRecord joinedRecord = resultingBdfDataRecords;
+            resultingBdfDataRecords = null;
+            BdfRecordPool.notifyListeners(listeners, joinedRecord);
         }
     }
 
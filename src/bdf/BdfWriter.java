@@ -8,11 +8,19 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.Date;
 
 /**
- *
+ * Writes received data records to the bdf file.
+ * <p>
+ * By default every record is written at once in the thread that delivers it (acquisition thread).
+ * In asynchronous mode (see setAsyncWriting) records are just copied to big preallocated buffers
+ * and full buffers are written by the separate thread (all buffers waiting for writing
+ * are written by one gathering write). So a slow disk never blocks the data acquisition.
  */
 public class BdfWriter implements BdfListener {
 
@@ -25,6 +33,19 @@ public class BdfWriter implements BdfListener {
     private boolean stopRecordingRequest;
     boolean isFrequencyAutoAdjustment = true;
 
+    // asynchronous writing
+    private static final int NUMBER_OF_PREALLOCATED_BUFFERS = 2;
+    private int writeBufferSize; // if 0 records are written at once in the calling thread
+    private long flushPeriodMs;
+    private final Object buffersLock = new Object();
+    private ByteBuffer activeBuffer; // buffer records are copied to
+    private long activeBufferTime; // time when the first bytes were copied to the active buffer
+    private ArrayDeque<ByteBuffer> fullBuffers = new ArrayDeque<ByteBuffer>();
+    private ArrayDeque<ByteBuffer> freeBuffers = new ArrayDeque<ByteBuffer>();
+    private boolean isClosing;
+    private Thread writingThread;
+    private volatile Exception writingError;
+
     public BdfWriter(BdfHeaderData bdfHeaderData)  throws ApplicationException {
         this.bdfHeaderData = bdfHeaderData;
         try {
@@ -39,6 +60,24 @@ public class BdfWriter implements BdfListener {
         this.isFrequencyAutoAdjustment = isFrequencyAutoAdjustment;
     }
 
+    /**
+     * Enable asynchronous writing. Must be called before data records are received.
+     *
+     * @param bufferSize    size of the write buffers in bytes. If 0 - records are written at once
+     * @param flushPeriodMs not full buffer is written if it keeps data longer than this period
+     */
+    public synchronized void setAsyncWriting(int bufferSize, int flushPeriodMs) throws IllegalStateException {
+        if (numberOfDataRecords > 0) {
+            throw new IllegalStateException("Writing mode can not be changed after recording start");
+        }
+        writeBufferSize = Math.max(0, bufferSize);
+        this.flushPeriodMs = Math.max(1, flushPeriodMs);
+        freeBuffers.clear();
+        for (int i = 0; i < NUMBER_OF_PREALLOCATED_BUFFERS && writeBufferSize > 0; i++) {
+            freeBuffers.add(ByteBuffer.allocate(writeBufferSize));
+        }
+    }
+
 
     @Override
     public synchronized void onDataRecordReceived(byte[] bdfDataRecord) {
@@ -48,7 +87,7 @@ public class BdfWriter implements BdfListener {
                 bdfHeaderData.setStartTime(startRecordingTime);
                 bdfHeaderData.setNumberOfDataRecords(-1);
                 try {
-                    fileToSave.write(BdfHeaderWriter.createBdfHeader(bdfHeaderData));
+                    write(BdfHeaderWriter.createBdfHeader(bdfHeaderData));
                 } catch (IOException e) {
                     LOG.error(e);
                     throw new RuntimeException(e);
@@ -57,7 +96,7 @@ public class BdfWriter implements BdfListener {
             numberOfDataRecords++;
             stopRecordingTime = System.currentTimeMillis();
             try {
-                fileToSave.write(bdfDataRecord);
+                write(bdfDataRecord);
             } catch (IOException e) {
                 LOG.error(e);
                 throw new RuntimeException(e);
@@ -74,6 +113,7 @@ public class BdfWriter implements BdfListener {
         // if BdfProvide(device) don't have quartz we should calculate actualDurationOfDataRecord
         double actualDurationOfDataRecord = (stopRecordingTime - startRecordingTime) * 0.001 / numberOfDataRecords;
         try {
+            stopWritingThread();
             fileToSave.seek(0);
             if(isFrequencyAutoAdjustment) {
                 fileToSave.write(BdfHeaderWriter.createBdfHeader(bdfHeaderData, actualDurationOfDataRecord));
@@ -93,4 +133,131 @@ public class BdfWriter implements BdfListener {
         LOG.info("Number of data records = " + numberOfDataRecords);
         LOG.info("Duration of a data record = " + actualDurationOfDataRecord);
     }
+
+    private void write(byte[] bytes) throws IOException {
+        if (writeBufferSize == 0) {
+            fileToSave.write(bytes);
+            return;
+        }
+        if (writingError != null) {
+            throw new IOException("Asynchronous writing failed", writingError);
+        }
+        synchronized (buffersLock) {
+            if (activeBuffer != null && activeBuffer.remaining() < bytes.length) {
+                commitActiveBuffer();
+            }
+            if (activeBuffer == null) {
+                activeBuffer = takeFreeBuffer(bytes.length);
+                activeBufferTime = System.currentTimeMillis();
+            }
+            activeBuffer.put(bytes);
+        }
+        if (writingThread == null) {
+            writingThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    writeBuffers();
+                }
+            }, "BdfWriter");
+            writingThread.start();
+        }
+    }
+
+    /**
+     * If the disk is slow and all preallocated buffers are waiting for writing
+     * a new buffer is allocated (acquisition is never blocked)
+     */
+    private ByteBuffer takeFreeBuffer(int minSize) {
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer == null || buffer.capacity() < minSize) {
+            if (buffer == null) {
+                LOG.warn("All write buffers are waiting for the disk. New buffer is allocated");
+            }
+            buffer = ByteBuffer.allocate(Math.max(writeBufferSize, minSize));
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Must be called with buffersLock held
+     */
+    private void commitActiveBuffer() {
+        activeBuffer.flip();
+        fullBuffers.add(activeBuffer);
+        activeBuffer = null;
+        buffersLock.notifyAll();
+    }
+
+    /**
+     * Main loop of the writing thread
+     */
+    private void writeBuffers() {
+        FileChannel fileChannel = fileToSave.getChannel();
+        try {
+            while (true) {
+                ByteBuffer[] buffers;
+                synchronized (buffersLock) {
+                    while (fullBuffers.isEmpty() && !isClosing) {
+                        long waitTime = flushPeriodMs;
+                        if (activeBuffer != null) {
+                            waitTime = flushPeriodMs - (System.currentTimeMillis() - activeBufferTime);
+                            if (waitTime <= 0) {
+                                commitActiveBuffer();
+                                break;
+                            }
+                        }
+                        buffersLock.wait(waitTime);
+                    }
+                    if (fullBuffers.isEmpty()) { // closing and everything is written
+                        return;
+                    }
+                    buffers = fullBuffers.toArray(new ByteBuffer[fullBuffers.size()]);
+                    fullBuffers.clear();
+                }
+                // group commit: all waiting buffers by one gathering write
+                long remaining = 0;
+                for (ByteBuffer buffer : buffers) {
+                    remaining += buffer.remaining();
+                }
+                while (remaining > 0) {
+                    remaining -= fileChannel.write(buffers);
+                }
+                synchronized (buffersLock) {
+                    for (ByteBuffer buffer : buffers) {
+                        if (freeBuffers.size() < NUMBER_OF_PREALLOCATED_BUFFERS && buffer.capacity() == writeBufferSize) {
+                            freeBuffers.add(buffer);
+                        }
+                    }
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            LOG.error(e);
+            writingError = e;
+        }
+    }
+
+    /**
+     * Write all buffered data and wait for the writing thread
+     */
+    private void stopWritingThread() throws IOException {
+        if (writingThread == null) {
+            return;
+        }
+        synchronized (buffersLock) {
+            if (activeBuffer != null) {
+                commitActiveBuffer();
+            }
+            isClosing = true;
+            buffersLock.notifyAll();
+        }
+        try {
+            writingThread.join();
+        } catch (InterruptedException e) {
+            throw new IOException("Interrupted while waiting for buffered data writing", e);
+        }
+        if (writingError != null) {
+            throw new IOException("Asynchronous writing failed", writingError);
+        }
+    }
 }
@@ -0,0 +1,256 @@
+package bdf;
+
+/**
+ * Lossless coding of the blocks of bdfz files.
+ * <p>
+ * Samples of every signal in the block are predicted from previous samples
+ * (order 1: x[i-1] or order 2: 2*x[i-1] - x[i-2], the best for the given signal and block).
+ * Prediction residuals are zig-zag mapped to unsigned values and Rice coded
+ * with the parameter k calculated from the mean residual. Values whose quotient
+ * is too big are escaped and stored as raw 32 bits.
+ * <p>
+ * Block bit stream: for every signal - 2 bits prediction order, 5 bits k, Rice codes of its samples.
+ */
+class BdfzCodec {
+    static final int MAGIC = 0x4244465A; // "BDFZ"
+    static final int VERSION = 1;
+    private static final int ESCAPE_QUOTIENT = 24;
+    private static final int MAX_K = 30;
+
+    private final int[] numberOfSamplesInEachDataRecord;
+    private final int[] signalOffsetsInDataRecord; // in bytes
+    private final int numberOfBytesInDataFormat;
+    private final int dataRecordSize;
+    private int[] samples = new int[0];
+    private int[] residuals = new int[0];
+    private BitWriter bitWriter = new BitWriter();
+
+    BdfzCodec(BdfConfig bdfConfig) {
+        numberOfBytesInDataFormat = bdfConfig.getNumberOfBytesInDataFormat();
+        SignalConfig[] signalConfigs = bdfConfig.getSignalConfigs();
+        numberOfSamplesInEachDataRecord = new int[signalConfigs.length];
+        signalOffsetsInDataRecord = new int[signalConfigs.length];
+        int offset = 0;
+        for (int i = 0; i < signalConfigs.length; i++) {
+            numberOfSamplesInEachDataRecord[i] = signalConfigs[i].getNumberOfSamplesInEachDataRecord();
+            signalOffsetsInDataRecord[i] = offset;
+            offset += numberOfSamplesInEachDataRecord[i] * numberOfBytesInDataFormat;
+        }
+        dataRecordSize = offset;
+    }
+
+    int getDataRecordSize() {
+        return dataRecordSize;
+    }
+
+    /**
+     * @param dataRecords numberOfRecords data records one after another
+     * @return encoded block
+     */
+    byte[] encodeBlock(byte[] dataRecords, int numberOfRecords) {
+        bitWriter.reset();
+        for (int signal = 0; signal < numberOfSamplesInEachDataRecord.length; signal++) {
+            int length = readSignalSamples(dataRecords, numberOfRecords, signal);
+            int order = chooseOrder(length);
+            long residualsSum = 0;
+            for (int i = 0; i < length; i++) {
+                int residual = samples[i] - predict(samples, i, order);
+                int unsigned = (residual << 1) ^ (residual >> 31); // zig-zag
+                residuals[i] = unsigned;
+                residualsSum += unsigned & 0xFFFFFFFFL;
+            }
+            int k = 0;
+            long mean = length == 0 ? 0 : residualsSum / length;
+            while (k < MAX_K && (1L << (k + 1)) <= mean) {
+                k++;
+            }
+            bitWriter.writeBits(order, 2);
+            bitWriter.writeBits(k, 5);
+            for (int i = 0; i < length; i++) {
+                int unsigned = residuals[i];
+                int quotient = unsigned >>> k;
+                if (quotient < ESCAPE_QUOTIENT) {
+                    bitWriter.writeOnes(quotient);
+                    bitWriter.writeBits(0, 1);
+                    bitWriter.writeBits(unsigned, k);
+                } else {
+                    bitWriter.writeOnes(ESCAPE_QUOTIENT);
+                    bitWriter.writeBits(unsigned, 32);
+                }
+            }
+        }
+        return bitWriter.toByteArray();
+    }
+
+    /**
+     * Decode the block to numberOfRecords data records written one after another to dest
+     */
+    void decodeBlock(byte[] block, int numberOfRecords, byte[] dest) {
+        BitReader bitReader = new BitReader(block);
+        for (int signal = 0; signal < numberOfSamplesInEachDataRecord.length; signal++) {
+            int length = numberOfSamplesInEachDataRecord[signal] * numberOfRecords;
+            ensureCapacity(length);
+            int order = bitReader.readBits(2);
+            int k = bitReader.readBits(5);
+            for (int i = 0; i < length; i++) {
+                int quotient = bitReader.readOnes(ESCAPE_QUOTIENT);
+                int unsigned;
+                if (quotient < ESCAPE_QUOTIENT) {
+                    unsigned = (quotient << k) | bitReader.readBits(k);
+                } else {
+                    unsigned = bitReader.readBits(32);
+                }
+                int residual = (unsigned >>> 1) ^ -(unsigned & 1);
+                samples[i] = residual + predict(samples, i, order);
+            }
+            writeSignalSamples(dest, numberOfRecords, signal);
+        }
+    }
+
+    private static int predict(int[] samples, int index, int order) {
+        if (index == 0 || order == 0) {
+            return 0;
+        }
+        if (index == 1 || order == 1) {
+            return samples[index - 1];
+        }
+        return 2 * samples[index - 1] - samples[index - 2];
+    }
+
+    private int chooseOrder(int length) {
+        long sum1 = 0;
+        long sum2 = 0;
+        for (int i = 2; i < length; i++) {
+            sum1 += Math.abs((long) samples[i] - samples[i - 1]);
+            sum2 += Math.abs((long) samples[i] - 2L * samples[i - 1] + samples[i - 2]);
+        }
+        return sum2 < sum1 ? 2 : 1;
+    }
+
+    private int readSignalSamples(byte[] dataRecords, int numberOfRecords, int signal) {
+        int numberOfSamples = numberOfSamplesInEachDataRecord[signal];
+        ensureCapacity(numberOfSamples * numberOfRecords);
+        int shift = 32 - 8 * numberOfBytesInDataFormat;
+        int index = 0;
+        for (int record = 0; record < numberOfRecords; record++) {
+            int byteIndex = record * dataRecordSize + signalOffsetsInDataRecord[signal];
+            for (int i = 0; i < numberOfSamples; i++) {
+                int value = 0;
+                for (int b = numberOfBytesInDataFormat - 1; b >= 0; b--) {
+                    value = (value << 8) | (dataRecords[byteIndex + b] & 0xFF);
+                }
+                samples[index++] = (value << shift) >> shift; // sign extension
+                byteIndex += numberOfBytesInDataFormat;
+            }
+        }
+        return index;
+    }
+
+    private void writeSignalSamples(byte[] dataRecords, int numberOfRecords, int signal) {
+        int numberOfSamples = numberOfSamplesInEachDataRecord[signal];
+        int index = 0;
+        for (int record = 0; record < numberOfRecords; record++) {
+            int byteIndex = record * dataRecordSize + signalOffsetsInDataRecord[signal];
+            for (int i = 0; i < numberOfSamples; i++) {
+                int value = samples[index++];
+                for (int b = 0; b < numberOfBytesInDataFormat; b++) {
+                    dataRecords[byteIndex++] = (byte) (value >> (8 * b));
+                }
+            }
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (samples.length < length) {
+            samples = new int[length];
+            residuals = new int[length];
+        }
+    }
+
+    static class BitWriter {
+        private byte[] buffer = new byte[1024];
+        private int position;
+        private long accumulator;
+        private int accumulatorBits;
+
+        void reset() {
+            position = 0;
+            accumulator = 0;
+            accumulatorBits = 0;
+        }
+
+        void writeBits(int value, int numberOfBits) {
+            if (numberOfBits == 0) {
+                return;
+            }
+            accumulator = (accumulator << numberOfBits) | (value & (0xFFFFFFFFL >>> (32 - numberOfBits)));
+            accumulatorBits += numberOfBits;
+            while (accumulatorBits >= 8) {
+                accumulatorBits -= 8;
+                put((byte) (accumulator >>> accumulatorBits));
+            }
+        }
+
+        void writeOnes(int numberOfOnes) {
+            while (numberOfOnes > 0) {
+                int n = Math.min(numberOfOnes, 32);
+                writeBits(-1, n);
+                numberOfOnes -= n;
+            }
+        }
+
+        byte[] toByteArray() {
+            if (accumulatorBits > 0) {
+                writeBits(0, 8 - accumulatorBits);
+            }
+            byte[] result = new byte[position];
+            System.arraycopy(buffer, 0, result, 0, position);
+            return result;
+        }
+
+        private void put(byte b) {
+            if (position == buffer.length) {
+                byte[] newBuffer = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, newBuffer, 0, position);
+                buffer = newBuffer;
+            }
+            buffer[position++] = b;
+        }
+    }
+
+    static class BitReader {
+        private final byte[] buffer;
+        private int position;
+        private long accumulator;
+        private int accumulatorBits;
+
+        BitReader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int readBits(int numberOfBits) {
+            if (numberOfBits == 0) {
+                return 0;
+            }
+            while (accumulatorBits < numberOfBits) {
+                int b = position < buffer.length ? buffer[position] & 0xFF : 0;
+                position++;
+                accumulator = (accumulator << 8) | b;
+                accumulatorBits += 8;
+            }
+            accumulatorBits -= numberOfBits;
+            return (int) ((accumulator >>> accumulatorBits) & (0xFFFFFFFFL >>> (32 - numberOfBits)));
+        }
+
+        /**
+         * @return number of successive 1 bits (and skip the terminating 0) but no more than maxOnes
+         */
+        int readOnes(int maxOnes) {
+            int ones = 0;
+            while (ones < maxOnes && readBits(1) == 1) {
+                ones++;
+            }
+            return ones;
+        }
+    }
+}
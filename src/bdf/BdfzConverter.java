@@ -0,0 +1,87 @@
+package bdf;
+
+import dreamrec.ApplicationException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Lossless conversion between bdf (edf) and compressed bdfz files.
+ * Header data (patient, recording, start time, signals) are kept as is.
+ * <p>
+ * Usage: BdfzConverter input_file [output_file]
+ * (bdf is compressed to bdfz and bdfz is decompressed to bdf)
+ */
+public class BdfzConverter {
+    private static final Log log = LogFactory.getLog(BdfzConverter.class);
+
+    public static void compress(File bdfFile, File bdfzFile) throws ApplicationException {
+        BdfMappedReader bdfReader = new BdfMappedReader(bdfFile);
+        BdfHeaderData bdfHeaderData = new BdfHeaderData(bdfReader.getBdfConfig());
+        copyHeaderInfo(bdfReader.getBdfConfig(), bdfHeaderData);
+        bdfHeaderData.setFile(bdfzFile.getAbsoluteFile().getParentFile(), bdfzFile.getName(),
+                new String[]{BdfzWriter.FILE_EXTENSION});
+        BdfzWriter bdfzWriter = new BdfzWriter(bdfHeaderData);
+        bdfReader.addBdfDataListener(bdfzWriter);
+        bdfReader.readData();
+    }
+
+    public static void decompress(File bdfzFile, File bdfFile) throws ApplicationException {
+        BdfzReader bdfzReader = new BdfzReader(bdfzFile);
+        BdfHeaderData bdfHeaderData = new BdfHeaderData(bdfzReader.getBdfConfig());
+        copyHeaderInfo(bdfzReader.getBdfConfig(), bdfHeaderData);
+        bdfHeaderData.setNumberOfDataRecords(bdfzReader.getNumberOfDataRecords());
+        bdfHeaderData.setFile(bdfFile.getAbsoluteFile().getParentFile(), bdfFile.getName());
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(bdfFile), 1024 * 1024)) {
+            outputStream.write(BdfHeaderWriter.createBdfHeader(bdfHeaderData));
+            byte[] dataRecord = new byte[bdfzReader.getDataRecordSize()];
+            for (int recordNumber = 0; recordNumber < bdfzReader.getNumberOfDataRecords(); recordNumber++) {
+                bdfzReader.readDataRecord(recordNumber, dataRecord, 0);
+                outputStream.write(dataRecord);
+            }
+        } catch (IOException e) {
+            log.error(e);
+            throw new ApplicationException("Error while writing to file " + bdfFile.getName(), e);
+        } finally {
+            bdfzReader.stopReading();
+        }
+    }
+
+    public static boolean isBdfz(File file) {
+        return file.getName().toLowerCase().endsWith("." + BdfzWriter.FILE_EXTENSION);
+    }
+
+    private static void copyHeaderInfo(BdfHeaderData from, BdfHeaderData to) {
+        to.setPatientIdentification(from.getPatientIdentification());
+        to.setRecordingIdentification(from.getRecordingIdentification());
+        to.setStartTime(from.getStartTime());
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: BdfzConverter input_file [output_file]");
+            System.exit(1);
+        }
+        File inputFile = new File(args[0]);
+        String name = inputFile.getName();
+        String baseName = name.lastIndexOf('.') > 0 ? name.substring(0, name.lastIndexOf('.')) : name;
+        try {
+            if (isBdfz(inputFile)) {
+                File outputFile = args.length > 1 ? new File(args[1]) : new File(inputFile.getParentFile(), baseName + ".bdf");
+                decompress(inputFile, outputFile);
+            } else {
+                File outputFile = args.length > 1 ? new File(args[1]) : new File(inputFile.getParentFile(), baseName + "." + BdfzWriter.FILE_EXTENSION);
+                compress(inputFile, outputFile);
+                log.info("Compression ratio: " + (double) inputFile.length() / outputFile.length());
+            }
+        } catch (ApplicationException e) {
+            log.error(e);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package bdf;
+
+import dreamrec.ApplicationException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+
+/**
+ * BdfProvider reading lossless compressed bdfz files (see BdfzWriter).
+ * Thanks to the block index any data record (or range of records) can be decoded
+ * without reading the blocks before it.
+ */
+public class BdfzReader implements BdfProvider {
+    private static final Log log = LogFactory.getLog(BdfzReader.class);
+
+    private RandomAccessFile file;
+    private BdfHeaderData bdfHeaderData;
+    private BdfzCodec codec;
+    private int dataRecordSize;
+    private int recordsInBlock;
+    private int numberOfDataRecords;
+    private long[] blockOffsets;
+    private int[] blockLengths;
+
+    // the last decoded block
+    private int decodedBlockNumber = -1;
+    private byte[] decodedBlock;
+
+    private volatile boolean isFileOpen = false;
+    private int startRecord;
+    private ArrayList<BdfListener> bdfListenersList = new ArrayList<BdfListener>();
+
+    public BdfzReader(File file) throws ApplicationException {
+        try {
+            bdfHeaderData = BdfHeaderReader.readBdfHeader(file);
+            codec = new BdfzCodec(bdfHeaderData);
+            dataRecordSize = codec.getDataRecordSize();
+            this.file = new RandomAccessFile(file, "r");
+            this.file.seek(256 + 256 * bdfHeaderData.getNumberOfSignals());
+            if (this.file.readInt() != BdfzCodec.MAGIC || this.file.readInt() > BdfzCodec.VERSION) {
+                throw new ApplicationException("File " + file.getName() + " is not a valid bdfz file");
+            }
+            recordsInBlock = this.file.readInt();
+            this.file.seek(this.file.length() - BdfzWriter.FOOTER_SIZE);
+            long indexOffset = this.file.readLong();
+            int numberOfBlocks = this.file.readInt();
+            numberOfDataRecords = this.file.readInt();
+            if (this.file.readInt() != BdfzCodec.MAGIC) {
+                throw new ApplicationException("File " + file.getName() + " is not complete (no block index)");
+            }
+            blockOffsets = new long[numberOfBlocks];
+            blockLengths = new int[numberOfBlocks];
+            this.file.seek(indexOffset);
+            for (int i = 0; i < numberOfBlocks; i++) {
+                blockOffsets[i] = this.file.readLong();
+                blockLengths[i] = this.file.readInt();
+            }
+            decodedBlock = new byte[recordsInBlock * dataRecordSize];
+            isFileOpen = true;
+        } catch (IOException e) {
+            log.error(e);
+            throw new ApplicationException("Error while opening file " + file.getName());
+        }
+    }
+
+    public int getNumberOfDataRecords() {
+        return numberOfDataRecords;
+    }
+
+    public int getDataRecordSize() {
+        return dataRecordSize;
+    }
+
+    /**
+     * Set the data record from which startReading() begins to send records to the listeners
+     */
+    public void setStartRecord(int recordNumber) {
+        checkRecordNumber(recordNumber);
+        startRecord = recordNumber;
+    }
+
+    /**
+     * Set the time (in seconds from the recording start) from which startReading() begins
+     */
+    public void setStartTime(double seconds) {
+        int recordNumber = (int) (seconds / bdfHeaderData.getDurationOfDataRecord());
+        setStartRecord(Math.max(0, Math.min(recordNumber, numberOfDataRecords - 1)));
+    }
+
+    public byte[] readDataRecord(int recordNumber) throws ApplicationException {
+        byte[] dataRecord = new byte[dataRecordSize];
+        readDataRecord(recordNumber, dataRecord, 0);
+        return dataRecord;
+    }
+
+    /**
+     * Copy data record with the given number to the dest array starting from the given offset.
+     * Only the block containing the record is read and decoded
+     */
+    public synchronized void readDataRecord(int recordNumber, byte[] dest, int offset) throws ApplicationException {
+        checkRecordNumber(recordNumber);
+        decodeBlock(recordNumber / recordsInBlock);
+        System.arraycopy(decodedBlock, (recordNumber % recordsInBlock) * dataRecordSize, dest, offset, dataRecordSize);
+    }
+
+    /**
+     * @return array of numberOfRecords data records starting from the record fromRecord
+     */
+    public byte[][] readDataRecords(int fromRecord, int numberOfRecords) throws ApplicationException {
+        checkRecordNumber(fromRecord);
+        checkRecordNumber(fromRecord + numberOfRecords - 1);
+        byte[][] dataRecords = new byte[numberOfRecords][];
+        for (int i = 0; i < numberOfRecords; i++) {
+            dataRecords[i] = readDataRecord(fromRecord + i);
+        }
+        return dataRecords;
+    }
+
+    private void checkRecordNumber(int recordNumber) {
+        if (recordNumber < 0 || recordNumber >= numberOfDataRecords) {
+            String msg = "Data record number = " + recordNumber + " Expected: 0 <= number < " + numberOfDataRecords;
+            throw new IndexOutOfBoundsException(msg);
+        }
+    }
+
+    private void decodeBlock(int blockNumber) throws ApplicationException {
+        if (!isFileOpen) {
+            throw new ApplicationException("File is closed");
+        }
+        if (blockNumber == decodedBlockNumber) {
+            return;
+        }
+        byte[] block = new byte[blockLengths[blockNumber]];
+        try {
+            file.seek(blockOffsets[blockNumber]);
+            file.readFully(block);
+        } catch (IOException e) {
+            log.error(e);
+            decodedBlockNumber = -1;
+            throw new ApplicationException("Error while reading from file " + bdfHeaderData.getFile().getName(), e);
+        }
+        codec.decodeBlock(block, getNumberOfRecordsInBlock(blockNumber), decodedBlock);
+        decodedBlockNumber = blockNumber;
+    }
+
+    private int getNumberOfRecordsInBlock(int blockNumber) {
+        return Math.min(recordsInBlock, numberOfDataRecords - blockNumber * recordsInBlock);
+    }
+
+    public void readData() {
+        try {
+            BdfRecordPool recordPool = new BdfRecordPool(dataRecordSize);
+            for (int recordNumber = startRecord; isFileOpen && recordNumber < numberOfDataRecords; recordNumber++) {
+                BdfRecord dataRecord = recordPool.acquire();
+                try {
+                    readDataRecord(recordNumber, dataRecord.getData(), 0);
+                } catch (ApplicationException e) {
+                    dataRecord.release();
+                    throw e;
+                }
+                BdfRecordPool.notifyListeners(bdfListenersList, dataRecord);
+            }
+        } catch (ApplicationException e) {
+            log.error(e);
+        }
+        stopReading();
+    }
+
+    @Override
+    public void startReading() {
+        if (SwingUtilities.isEventDispatchThread()) { // if file reading starts from gui we read it in new Thread
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    readData();
+                }
+            }).start();
+        } else {
+            readData(); // if file reading starts from non-gui Thread we read it in the same thread
+        }
+    }
+
+    @Override
+    public void stopReading() {
+        if (isFileOpen) {
+            isFileOpen = false;
+            synchronized (this) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    log.error(e);
+                }
+            }
+            for (BdfListener bdfListener : bdfListenersList) {
+                bdfListener.onStopReading();
+            }
+        }
+    }
+
+    @Override
+    public void addBdfDataListener(BdfListener bdfListener) {
+        bdfListenersList.add(bdfListener);
+    }
+
+    @Override
+    public void removeBdfDataListener(BdfListener bdfListener) {
+        bdfListenersList.remove(bdfListener);
+    }
+
+    @Override
+    public BdfHeaderData getBdfConfig() {
+        return bdfHeaderData;
+    }
+}
@@ -0,0 +1,136 @@
+package bdf;
+
+import dreamrec.ApplicationException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes data records to the lossless compressed bdfz file.
+ * <p>
+ * File structure:
+ * <ul>
+ * <li> usual bdf header (so BdfHeaderReader reads bdfz files as well) </li>
+ * <li> int magic "BDFZ", int version, int number of data records in every block </li>
+ * <li> compressed blocks (see BdfzCodec) </li>
+ * <li> block index: long offset and int length of every block </li>
+ * <li> footer: long index offset, int number of blocks, int number of data records, int magic </li>
+ * </ul>
+ * The index permits to decode any block (time range) without reading the rest of the file.
+ */
+public class BdfzWriter implements BdfListener {
+    private static final Log log = LogFactory.getLog(BdfzWriter.class);
+    public static final String FILE_EXTENSION = "bdfz";
+    static final int FOOTER_SIZE = 8 + 4 + 4 + 4;
+    private static final int DEFAULT_SAMPLES_IN_BLOCK = 8192;
+
+    private final BdfHeaderData bdfHeaderData;
+    private final BdfzCodec codec;
+    private final int recordsInBlock;
+    private final byte[] blockRecords;
+    private int numberOfRecordsInBlock;
+    private int numberOfDataRecords;
+    private List<long[]> blockIndex = new ArrayList<long[]>(); // {offset, length}
+    private RandomAccessFile file;
+
+    /**
+     * bdfHeaderData.getFile() is the file to write to
+     */
+    public BdfzWriter(BdfHeaderData bdfHeaderData) throws ApplicationException {
+        this(bdfHeaderData, 0);
+    }
+
+    /**
+     * @param recordsInBlock number of data records in every compressed block
+     *                       (if <= 0 - block will have about 8192 samples)
+     */
+    public BdfzWriter(BdfHeaderData bdfHeaderData, int recordsInBlock) throws ApplicationException {
+        this.bdfHeaderData = bdfHeaderData;
+        codec = new BdfzCodec(bdfHeaderData);
+        int numberOfSamplesInDataRecord = codec.getDataRecordSize() / bdfHeaderData.getNumberOfBytesInDataFormat();
+        if (recordsInBlock <= 0) {
+            recordsInBlock = Math.max(1, DEFAULT_SAMPLES_IN_BLOCK / Math.max(1, numberOfSamplesInDataRecord));
+        }
+        this.recordsInBlock = recordsInBlock;
+        blockRecords = new byte[recordsInBlock * codec.getDataRecordSize()];
+        File fileToSave = bdfHeaderData.getFile();
+        try {
+            file = new RandomAccessFile(fileToSave, "rw");
+            file.setLength(0);
+            file.write(BdfHeaderWriter.createBdfHeader(bdfHeaderData));
+            file.writeInt(BdfzCodec.MAGIC);
+            file.writeInt(BdfzCodec.VERSION);
+            file.writeInt(recordsInBlock);
+        } catch (FileNotFoundException e) {
+            log.error(e);
+            throw new ApplicationException("File: " + fileToSave.getAbsolutePath() + " could not be written");
+        } catch (IOException e) {
+            log.error(e);
+            throw new ApplicationException("Error while writing to file " + fileToSave.getName(), e);
+        }
+    }
+
+    @Override
+    public void onDataRecordReceived(byte[] bdfDataRecord) {
+        if (file == null) {
+            return;
+        }
+        System.arraycopy(bdfDataRecord, 0, blockRecords, numberOfRecordsInBlock * codec.getDataRecordSize(), codec.getDataRecordSize());
+        numberOfRecordsInBlock++;
+        numberOfDataRecords++;
+        if (numberOfRecordsInBlock == recordsInBlock) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Write the last block, the index and the header with the number of data records
+     */
+    @Override
+    public void onStopReading() {
+        if (file == null) {
+            return;
+        }
+        try {
+            if (numberOfRecordsInBlock > 0) {
+                writeBlock();
+            }
+            long indexOffset = file.getFilePointer();
+            for (long[] block : blockIndex) {
+                file.writeLong(block[0]);
+                file.writeInt((int) block[1]);
+            }
+            file.writeLong(indexOffset);
+            file.writeInt(blockIndex.size());
+            file.writeInt(numberOfDataRecords);
+            file.writeInt(BdfzCodec.MAGIC);
+            bdfHeaderData.setNumberOfDataRecords(numberOfDataRecords);
+            file.seek(0);
+            file.write(BdfHeaderWriter.createBdfHeader(bdfHeaderData));
+            file.close();
+            file = null;
+            log.info("Bdfz file: " + bdfHeaderData.getFile().getName() + " " + numberOfDataRecords + " data records");
+        } catch (IOException e) {
+            log.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeBlock() {
+        byte[] block = codec.encodeBlock(blockRecords, numberOfRecordsInBlock);
+        try {
+            blockIndex.add(new long[]{file.getFilePointer(), block.length});
+            file.write(block);
+        } catch (IOException e) {
+            log.error(e);
+            throw new RuntimeException(e);
+        }
+        numberOfRecordsInBlock = 0;
+    }
+}
@@ -0,0 +1,43 @@
+package bdf;
+
+/**
+ * Config of data records made of numberOfRecordsToJoin original records
+ * where the frequency of every signal is divided by its divider
+ */
+public class DecimatedBdfConfig extends BdfConfigWrapper {
+    private int numberOfRecordsToJoin;
+    private int[] dividers;
+
+    public DecimatedBdfConfig(BdfConfig originalBdfConfig, int numberOfRecordsToJoin, int[] dividers) {
+        super(originalBdfConfig);
+        this.numberOfRecordsToJoin = numberOfRecordsToJoin;
+        this.dividers = dividers;
+    }
+
+    public int getNumberOfRecordsToJoin() {
+        return numberOfRecordsToJoin;
+    }
+
+    public int[] getDividers() {
+        return dividers;
+    }
+
+    @Override
+    public double getDurationOfDataRecord() {
+        return bdfConfig.getDurationOfDataRecord() * numberOfRecordsToJoin;
+    }
+
+    @Override
+    public SignalConfig[] getSignalConfigs() {
+        SignalConfig[] originalSignalConfigs = bdfConfig.getSignalConfigs();
+        SignalConfig[] resultingSignalsConfigs = new SignalConfig[originalSignalConfigs.length];
+        for (int i = 0; i < originalSignalConfigs.length; i++) {
+            int resultingNumberOfSamples = numberOfRecordsToJoin * originalSignalConfigs[i].getNumberOfSamplesInEachDataRecord() / dividers[i];
+            resultingSignalsConfigs[i] = new SignalConfig(resultingNumberOfSamples, originalSignalConfigs[i].getCalibration());
+            resultingSignalsConfigs[i].setLabel(originalSignalConfigs[i].getLabel());
+            resultingSignalsConfigs[i].setTransducerType(originalSignalConfigs[i].getTransducerType());
+            resultingSignalsConfigs[i].setPrefiltering(originalSignalConfigs[i].getPrefiltering());
+        }
+        return resultingSignalsConfigs;
+    }
+}
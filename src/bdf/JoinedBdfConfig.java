@@ -11,6 +11,10 @@ public class JoinedBdfConfig extends BdfConfigWrapper {
         this.numberOfRecordsToJoin = numberOfRecordsToJoin;
     }
 
+    public int getNumberOfRecordsToJoin() {
+        return numberOfRecordsToJoin;
+    }
+
     @Override
     public double getDurationOfDataRecord() {
         return bdfConfig.getDurationOfDataRecord() * numberOfRecordsToJoin;
@@ -0,0 +1,57 @@
+package comport;
+
+/**
+ * Preallocated ring of bytes for one writer thread and one reader thread.
+ * Writer never blocks: bytes that do not fit are not written (overrun).
+ */
+class ByteRingBuffer {
+    private final byte[] buffer;
+    private final int mask;
+    private volatile long writeIndex;
+    private volatile long readIndex;
+
+    /**
+     * @param capacity is rounded up to the power of 2
+     */
+    ByteRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        buffer = new byte[size];
+        mask = size - 1;
+    }
+
+    int getCapacity() {
+        return buffer.length;
+    }
+
+    int getDepth() {
+        return (int) (writeIndex - readIndex);
+    }
+
+    /**
+     * @return number of written bytes (less than length if the ring is full)
+     */
+    int write(byte[] src, int offset, int length) {
+        long write = writeIndex;
+        int n = Math.min(length, buffer.length - (int) (write - readIndex));
+        int position = (int) (write & mask);
+        int firstPart = Math.min(n, buffer.length - position);
+        System.arraycopy(src, offset, buffer, position, firstPart);
+        System.arraycopy(src, offset + firstPart, buffer, 0, n - firstPart);
+        writeIndex = write + n;
+        return n;
+    }
+
+    /**
+     * @return number of bytes read to dest (0 if the ring is empty)
+     */
+    int read(byte[] dest) {
+        long read = readIndex;
+        int n = Math.min(dest.length, (int) (writeIndex - read));
+        int position = (int) (read & mask);
+        int firstPart = Math.min(n, buffer.length - position);
+        System.arraycopy(buffer, position, dest, 0, firstPart);
+        System.arraycopy(buffer, 0, dest, firstPart, n - firstPart);
+        readIndex = read + n;
+        return n;
+    }
+}
@@ -5,6 +5,8 @@ import jssc.*;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Library jSSC is used.
@@ -13,13 +15,31 @@ import java.util.List;
  * Mac OS X 10.5 and higher(x86, x86-64, PPC, PPC64)
  * https://code.google.com/p/java-simple-serial-connector/
  * http://www.quizful.net/post/java-serial-ports
- *
+ * <p>
+ * By default received bytes are passed to the listener in the jSSC event thread.
+ * After startReaderThread() the port is drained by the dedicated high priority thread
+ * to the preallocated byte ring and the listener is called from the separate decoder thread,
+ * so slow listeners never delay port reading (if the ring is full bytes are lost and counted as overruns).
  */
 public class ComPort implements SerialPortEventListener {
 
     private static Log log = LogFactory.getLog(ComPort.class);
     SerialPort comPort;
-    private ComPortListener comPortListener;
+    private volatile ComPortListener comPortListener;
+
+    // reader thread mode
+    private static final int READ_PERIOD_MS = 1;
+    private static final int DECODE_BLOCK_SIZE = 4096;
+    private static final long OVERRUN_LOG_PERIOD_MS = 1000;
+    private ByteRingBuffer ringBuffer;
+    private Thread readerThread;
+    private Thread decoderThread;
+    private volatile boolean isReaderThreadRunning;
+    private final AtomicLong overrunsCount = new AtomicLong();
+    private final AtomicLong overrunBytesCount = new AtomicLong();
+    // used only in the decoder thread
+    private long loggedOverrunsCount;
+    private long overrunLogTime;
 
     public ComPort(String comPortName, int speed) throws ApplicationException, SerialPortException {
         boolean isComPortExist = false;
@@ -52,7 +72,148 @@ public class ComPort implements SerialPortEventListener {
         }
     }
 
+    /**
+     * Read the port in the dedicated thread to the ring buffer of the given size
+     * and pass bytes to the listener in the separate decoder thread
+     */
+    public void startReaderThread(int bufferSize) throws SerialPortException {
+        if (readerThread != null) {
+            return;
+        }
+        comPort.removeEventListener();
+        ringBuffer = new ByteRingBuffer(bufferSize);
+        isReaderThreadRunning = true;
+        decoderThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                decodeBytes();
+            }
+        }, "ComPort decoder");
+        decoderThread.setDaemon(true);
+        readerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                readPort();
+            }
+        }, "ComPort reader");
+        readerThread.setDaemon(true);
+        readerThread.setPriority(Thread.MAX_PRIORITY);
+        decoderThread.start();
+        readerThread.start();
+        log.info("Com port reader thread started. Buffer size: " + ringBuffer.getCapacity() + " bytes");
+    }
+
+    /**
+     * @return how many times received bytes did not fit to the reader thread buffer
+     */
+    public long getOverrunsCount() {
+        return overrunsCount.get();
+    }
+
+    /**
+     * @return number of received bytes lost because the reader thread buffer was full
+     */
+    public long getOverrunBytesCount() {
+        return overrunBytesCount.get();
+    }
+
+    /**
+     * @return number of bytes waiting for decoding in the reader thread buffer
+     */
+    public int getBufferDepth() {
+        return ringBuffer == null ? 0 : ringBuffer.getDepth();
+    }
+
+    private void readPort() {
+        while (isReaderThreadRunning) {
+            try {
+                int available = comPort.getInputBufferBytesCount();
+                if (available <= 0) {
+                    Thread.sleep(READ_PERIOD_MS);
+                    continue;
+                }
+                byte[] bytes = comPort.readBytes(available);
+                int written = ringBuffer.write(bytes, 0, bytes.length);
+                if (written < bytes.length) {
+                    overrunsCount.incrementAndGet();
+                    overrunBytesCount.addAndGet(bytes.length - written);
+                }
+                LockSupport.unpark(decoderThread);
+            } catch (SerialPortException ex) {
+                if (isReaderThreadRunning) {
+                    log.error(ex);
+                }
+                break;
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        isReaderThreadRunning = false;
+        LockSupport.unpark(decoderThread);
+    }
+
+    private void decodeBytes() {
+        byte[] bytes = new byte[DECODE_BLOCK_SIZE];
+        while (true) {
+            logOverruns();
+            boolean isLastRead = !isReaderThreadRunning;
+            int n = ringBuffer.read(bytes);
+            if (n == 0) {
+                if (isLastRead) {
+                    return;
+                }
+                LockSupport.parkNanos(READ_PERIOD_MS * 1000000L);
+                continue;
+            }
+            ComPortListener listener = comPortListener;
+            if (listener != null) {
+                try {
+                    listener.onBytesReceived(bytes, 0, n);
+                } catch (RuntimeException e) {
+                    log.error(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Overruns are only counted in the reader thread (logging could break its latency)
+     * and are logged here at most once per OVERRUN_LOG_PERIOD_MS
+     */
+    private void logOverruns() {
+        long overruns = overrunsCount.get();
+        if (overruns > loggedOverrunsCount) {
+            long time = System.currentTimeMillis();
+            if (time - overrunLogTime >= OVERRUN_LOG_PERIOD_MS) {
+                log.warn("Com port buffer overruns: " + (overruns - loggedOverrunsCount)
+                        + " new, lost bytes total: " + overrunBytesCount.get());
+                loggedOverrunsCount = overruns;
+                overrunLogTime = time;
+            }
+        }
+    }
+
+    private void stopReaderThread() {
+        if (readerThread == null) {
+            return;
+        }
+        isReaderThreadRunning = false;
+        try {
+            readerThread.join();
+            if (Thread.currentThread() != decoderThread) {
+                decoderThread.join();
+            }
+        } catch (InterruptedException e) {
+            log.warn(e);
+        }
+        if (overrunsCount.get() > 0) {
+            log.warn("Com port buffer overruns: " + overrunsCount.get() + ", lost bytes: " + overrunBytesCount.get());
+        }
+        readerThread = null;
+    }
+
     public void disconnect() {
+        stopReaderThread();
         if (comPort.isOpened()) {
             try {
                 comPort.closePort();
@@ -89,10 +250,8 @@ public class ComPort implements SerialPortEventListener {
         if (event.isRXCHAR() && event.getEventValue() > 0) {
             try {
                 byte[] buffer = comPort.readBytes();
-                for (int i = 0; i < buffer.length; i++) {
-                    if (comPortListener != null) {
-                        comPortListener.onByteReceived((buffer[i]));
-                    }
+                if (comPortListener != null && buffer != null) {
+                    comPortListener.onBytesReceived(buffer, 0, buffer.length);
                 }
             } catch (SerialPortException ex) {
                 log.error(ex);
@@ -2,4 +2,13 @@ package comport;
 
 public interface ComPortListener {
     public void onByteReceived(byte inByte);
+
+    /**
+     * Block version of onByteReceived. By default passes the bytes one by one
+     */
+    default void onBytesReceived(byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            onByteReceived(bytes[i]);
+        }
+    }
 }
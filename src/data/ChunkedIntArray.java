@@ -0,0 +1,185 @@
+package data;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Growing int array stored in fixed size chunks. Unlike TIntArrayList
+ * it never copies data on append and never needs one huge contiguous array.
+ * Chunks can live on the heap or off-heap (in direct ByteBuffers).
+ * Old (full) chunks can be spilled to a temporary file when the number of chunks
+ * kept in memory exceeds the given limit. Spilled chunks are memory mapped so
+ * they are still readable (and writable) but do not occupy neither heap nor direct memory.
+ * <p>
+ * Single writer / multiple readers: one thread may add values while other threads read.
+ * Values are written before the size is published (volatile) and the chunks directory
+ * is replaced (copy on write), never modified in place, so a reader that got the size
+ * always sees all values of the prefix [0, size).
+ */
+class ChunkedIntArray {
+    private static final Log log = LogFactory.getLog(ChunkedIntArray.class);
+    static final int DEFAULT_CHUNK_SIZE_POWER = 16; // 64K ints (256 KB) in every chunk
+
+    private final int chunkSizePower;
+    private final int chunkSize;
+    private final int chunkMask;
+    private final boolean isOffHeap;
+    private volatile IntBuffer[] chunks = new IntBuffer[0];
+    private int numberOfChunks;
+    private volatile int size;
+
+    private int maxChunksInMemory = -1; // if < 0 chunks are never spilled
+    private int numberOfSpilledChunks;
+    private RandomAccessFile spillFile;
+    private File spillFilePath;
+
+    ChunkedIntArray(boolean isOffHeap) {
+        this(DEFAULT_CHUNK_SIZE_POWER, isOffHeap);
+    }
+
+    /**
+     * @param chunkSizePower chunk size = 2^chunkSizePower
+     */
+    ChunkedIntArray(int chunkSizePower, boolean isOffHeap) {
+        this.chunkSizePower = chunkSizePower;
+        this.isOffHeap = isOffHeap;
+        chunkSize = 1 << chunkSizePower;
+        chunkMask = chunkSize - 1;
+    }
+
+    synchronized void setMaxChunksInMemory(int maxChunksInMemory) {
+        this.maxChunksInMemory = maxChunksInMemory;
+        spillOldChunks();
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return chunks[index >>> chunkSizePower].get(index & chunkMask);
+    }
+
+    void set(int index, int value) {
+        chunks[index >>> chunkSizePower].put(index & chunkMask, value);
+    }
+
+    void add(int value) {
+        int size = this.size;
+        if (size == numberOfChunks << chunkSizePower) {
+            addChunk();
+        }
+        chunks[size >>> chunkSizePower].put(size & chunkMask, value);
+        this.size = size + 1;
+    }
+
+    void addAll(int[] values, int offset, int length) {
+        int size = this.size;
+        while (length > 0) {
+            if (size == numberOfChunks << chunkSizePower) {
+                addChunk();
+            }
+            int chunkOffset = size & chunkMask;
+            int n = Math.min(length, chunkSize - chunkOffset);
+            IntBuffer chunk = chunks[size >>> chunkSizePower].duplicate();
+            chunk.position(chunkOffset);
+            chunk.put(values, offset, n);
+            size += n;
+            offset += n;
+            length -= n;
+        }
+        this.size = size;
+    }
+
+    void get(int fromIndex, int[] dest, int destOffset, int length) {
+        IntBuffer[] chunks = this.chunks;
+        while (length > 0) {
+            int chunkOffset = fromIndex & chunkMask;
+            int n = Math.min(length, chunkSize - chunkOffset);
+            IntBuffer chunk = chunks[fromIndex >>> chunkSizePower].duplicate();
+            chunk.position(chunkOffset);
+            chunk.get(dest, destOffset, n);
+            fromIndex += n;
+            destOffset += n;
+            length -= n;
+        }
+    }
+
+    private void addChunk() {
+        IntBuffer[] newChunks = new IntBuffer[numberOfChunks + 1];
+        System.arraycopy(chunks, 0, newChunks, 0, numberOfChunks);
+        if (isOffHeap) {
+            newChunks[numberOfChunks] = ByteBuffer.allocateDirect(chunkSize * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+        } else {
+            newChunks[numberOfChunks] = IntBuffer.allocate(chunkSize);
+        }
+        chunks = newChunks;
+        numberOfChunks++;
+        spillOldChunks();
+    }
+
+    /**
+     * The last chunk (the one being filled) is never spilled
+     */
+    private synchronized void spillOldChunks() {
+        if (maxChunksInMemory < 0) {
+            return;
+        }
+        int maxChunksToSpill = numberOfChunks - 1;
+        while (numberOfSpilledChunks < maxChunksToSpill && numberOfChunks - numberOfSpilledChunks > maxChunksInMemory) {
+            try {
+                spillChunk(numberOfSpilledChunks);
+                numberOfSpilledChunks++;
+            } catch (IOException e) {
+                log.error("Chunk spilling failed. Spilling disabled", e);
+                maxChunksInMemory = -1;
+                return;
+            }
+        }
+    }
+
+    private void spillChunk(int chunkNumber) throws IOException {
+        if (spillFile == null) {
+            spillFilePath = File.createTempFile("datalist", ".spill");
+            spillFilePath.deleteOnExit();
+            spillFile = new RandomAccessFile(spillFilePath, "rw");
+        }
+        long position = ((long) chunkNumber << chunkSizePower) * 4;
+        IntBuffer spilledChunk = spillFile.getChannel().map(FileChannel.MapMode.READ_WRITE, position, chunkSize * 4)
+                .order(ByteOrder.nativeOrder()).asIntBuffer();
+        IntBuffer chunk = chunks[chunkNumber].duplicate();
+        chunk.clear();
+        spilledChunk.put(chunk);
+        IntBuffer[] newChunks = chunks.clone();
+        newChunks[chunkNumber] = spilledChunk;
+        chunks = newChunks;
+    }
+
+    /**
+     * Close and delete the spill file (if any) and stop spilling.
+     * Already spilled chunks stay readable while they are mapped
+     */
+    synchronized void close() {
+        maxChunksInMemory = -1;
+        if (spillFile != null) {
+            try {
+                spillFile.close();
+            } catch (IOException e) {
+                log.error(e);
+            }
+            spillFile = null;
+            if (!spillFilePath.delete()) {
+                log.warn("Spill file could not be deleted: " + spillFilePath);
+            }
+            spillFilePath = null;
+        }
+    }
+}
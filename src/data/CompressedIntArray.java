@@ -0,0 +1,214 @@
+package data;
+
+import gnu.trove.list.array.TIntArrayList;
+
+/**
+ * Growing int array stored in lossless compressed form.
+ * Values are grouped in blocks of BLOCK_SIZE. The first value of every block is stored as is,
+ * the rest are stored as zig-zag encoded deltas bit-packed with the minimal bit width
+ * of the block. For slow signals (EOG, EEG, accelerometer) neighbouring values differ
+ * by a few bits only, so a block needs several times less memory than int[].
+ * <p>
+ * Per-block index (start of the packed block, first value, bit width) gives O(1) block seek.
+ * The last (not complete) block is kept uncompressed and several most recently decoded
+ * blocks are cached, so sequential reading decodes every block only once.
+ * <p>
+ * All methods are synchronized: values may be read from one thread while they are appended by another one.
+ */
+class CompressedIntArray {
+    static final int BLOCK_SIZE_POWER = 8;
+    static final int BLOCK_SIZE = 1 << BLOCK_SIZE_POWER; // 256
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    private static final int NUMBER_OF_CACHED_BLOCKS = 8;
+
+    private TIntArrayList packedData = new TIntArrayList();
+    private TIntArrayList blockOffsets = new TIntArrayList();
+    private TIntArrayList blockFirstValues = new TIntArrayList();
+    private TIntArrayList blockBitWidths = new TIntArrayList();
+
+    private int[] lastBlock = new int[BLOCK_SIZE];
+    private int size;
+
+    private int[][] cachedBlocks = new int[NUMBER_OF_CACHED_BLOCKS][BLOCK_SIZE];
+    private int[] cachedBlockNumbers = new int[NUMBER_OF_CACHED_BLOCKS];
+    private int nextCachePosition;
+
+    CompressedIntArray() {
+        for (int i = 0; i < NUMBER_OF_CACHED_BLOCKS; i++) {
+            cachedBlockNumbers[i] = -1;
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized void add(int value) {
+        lastBlock[size & BLOCK_MASK] = value;
+        size++;
+        if ((size & BLOCK_MASK) == 0) {
+            encodeBlock(lastBlock);
+        }
+    }
+
+    synchronized void addAll(int[] values, int offset, int length) {
+        while (length > 0) {
+            int blockOffset = size & BLOCK_MASK;
+            int n = Math.min(length, BLOCK_SIZE - blockOffset);
+            System.arraycopy(values, offset, lastBlock, blockOffset, n);
+            size += n;
+            offset += n;
+            length -= n;
+            if ((size & BLOCK_MASK) == 0) {
+                encodeBlock(lastBlock);
+            }
+        }
+    }
+
+    synchronized int get(int index) {
+        checkIndex(index);
+        int blockNumber = index >>> BLOCK_SIZE_POWER;
+        if (blockNumber == blockOffsets.size()) {
+            return lastBlock[index & BLOCK_MASK];
+        }
+        return getDecodedBlock(blockNumber)[index & BLOCK_MASK];
+    }
+
+    synchronized void get(int fromIndex, int[] dest, int destOffset, int length) {
+        if (length <= 0) {
+            return;
+        }
+        checkIndex(fromIndex);
+        checkIndex(fromIndex + length - 1);
+        while (length > 0) {
+            int blockNumber = fromIndex >>> BLOCK_SIZE_POWER;
+            int blockOffset = fromIndex & BLOCK_MASK;
+            int n = Math.min(length, BLOCK_SIZE - blockOffset);
+            if (blockNumber == blockOffsets.size()) {
+                System.arraycopy(lastBlock, blockOffset, dest, destOffset, n);
+            } else if (n == BLOCK_SIZE) {
+                // the whole block is decoded directly to dest
+                decodeBlock(blockNumber, dest, destOffset);
+            } else {
+                System.arraycopy(getDecodedBlock(blockNumber), blockOffset, dest, destOffset, n);
+            }
+            fromIndex += n;
+            destOffset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Changing a value of the compressed block re-encodes the block to the end of packed data
+     * (the old packed block is left unused)
+     */
+    synchronized void set(int index, int value) {
+        checkIndex(index);
+        int blockNumber = index >>> BLOCK_SIZE_POWER;
+        if (blockNumber == blockOffsets.size()) {
+            lastBlock[index & BLOCK_MASK] = value;
+            return;
+        }
+        int[] block = new int[BLOCK_SIZE];
+        decodeBlock(blockNumber, block, 0);
+        block[index & BLOCK_MASK] = value;
+        blockOffsets.set(blockNumber, packedData.size());
+        blockFirstValues.set(blockNumber, block[0]);
+        blockBitWidths.set(blockNumber, packBlock(block));
+        for (int i = 0; i < NUMBER_OF_CACHED_BLOCKS; i++) {
+            if (cachedBlockNumbers[i] == blockNumber) {
+                cachedBlockNumbers[i] = -1;
+            }
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index = " + index + " Size = " + size);
+        }
+    }
+
+    private int[] getDecodedBlock(int blockNumber) {
+        for (int i = 0; i < NUMBER_OF_CACHED_BLOCKS; i++) {
+            if (cachedBlockNumbers[i] == blockNumber) {
+                return cachedBlocks[i];
+            }
+        }
+        int position = nextCachePosition;
+        nextCachePosition = (nextCachePosition + 1) % NUMBER_OF_CACHED_BLOCKS;
+        decodeBlock(blockNumber, cachedBlocks[position], 0);
+        cachedBlockNumbers[position] = blockNumber;
+        return cachedBlocks[position];
+    }
+
+    private void encodeBlock(int[] block) {
+        blockOffsets.add(packedData.size());
+        blockFirstValues.add(block[0]);
+        blockBitWidths.add(packBlock(block));
+    }
+
+    /**
+     * Append zig-zag encoded deltas of the block to the packed data
+     *
+     * @return bit width of the packed deltas
+     */
+    private int packBlock(int[] block) {
+        int bits = 0;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            bits |= zigZag(block[i] - block[i - 1]);
+        }
+        int bitWidth = 32 - Integer.numberOfLeadingZeros(bits);
+        if (bitWidth == 0) {
+            return 0;
+        }
+        long buffer = 0;
+        int bitsInBuffer = 0;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            buffer |= (zigZag(block[i] - block[i - 1]) & 0xFFFFFFFFL) << bitsInBuffer;
+            bitsInBuffer += bitWidth;
+            if (bitsInBuffer >= 32) {
+                packedData.add((int) buffer);
+                buffer >>>= 32;
+                bitsInBuffer -= 32;
+            }
+        }
+        if (bitsInBuffer > 0) {
+            packedData.add((int) buffer);
+        }
+        return bitWidth;
+    }
+
+    private void decodeBlock(int blockNumber, int[] dest, int destOffset) {
+        int value = blockFirstValues.get(blockNumber);
+        int bitWidth = blockBitWidths.get(blockNumber);
+        dest[destOffset] = value;
+        if (bitWidth == 0) {
+            for (int i = 1; i < BLOCK_SIZE; i++) {
+                dest[destOffset + i] = value;
+            }
+            return;
+        }
+        long mask = (1L << bitWidth) - 1;
+        int wordIndex = blockOffsets.get(blockNumber);
+        long buffer = 0;
+        int bitsInBuffer = 0;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            if (bitsInBuffer < bitWidth) {
+                buffer |= (packedData.getQuick(wordIndex++) & 0xFFFFFFFFL) << bitsInBuffer;
+                bitsInBuffer += 32;
+            }
+            value += unZigZag((int) (buffer & mask));
+            buffer >>>= bitWidth;
+            bitsInBuffer -= bitWidth;
+            dest[destOffset + i] = value;
+        }
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
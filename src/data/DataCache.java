@@ -0,0 +1,132 @@
+package data;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caching decorator for expensive (computed) input data.
+ * Unlike DataCollector that keeps all computed values, DataCache keeps
+ * blocks of BLOCK_SIZE computed values in the LRU cache shared by all DataCaches.
+ * When the total size of cached blocks exceeds the cache size the least recently
+ * used blocks are removed, so memory does not grow unbounded.
+ * <p>
+ * The last block of the input data is usually not complete. It is cached together
+ * with its length and recalculated when the input data grow.
+ */
+public class DataCache implements DataSeries {
+    private static final int BLOCK_SIZE_POWER = 10;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SIZE_POWER; // 1024
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    private static long maxCacheSize = 16 * 1024 * 1024; // number of ints (64 MB)
+    private static long cacheSize;
+    private static int cacheCounter;
+    // key = cache id << 32 | block number. Access order: the most recently used are the last
+    private static final LinkedHashMap<Long, int[]> blocks = new LinkedHashMap<Long, int[]>(256, 0.75f, true);
+
+    private DataSeries inputData;
+    private final long id;
+    // the last used block (to avoid cache lookup on sequential access)
+    private int lastBlockNumber = -1;
+    private int[] lastBlock;
+
+    public DataCache(DataSeries inputData) {
+        this.inputData = inputData;
+        synchronized (blocks) {
+            id = cacheCounter++;
+        }
+    }
+
+    /**
+     * @param cacheSize max total number of values cached by all DataCaches
+     */
+    public static void setCacheSize(long cacheSize) {
+        synchronized (blocks) {
+            maxCacheSize = cacheSize;
+            removeEldest();
+        }
+    }
+
+    @Override
+    public int size() {
+        return inputData.size();
+    }
+
+    @Override
+    public int get(int index) {
+        int blockOffset = index & BLOCK_MASK;
+        int[] block = getBlock(index >>> BLOCK_SIZE_POWER, blockOffset);
+        if (blockOffset >= block.length) { // index >= size
+            return inputData.get(index);
+        }
+        return block[blockOffset];
+    }
+
+    @Override
+    public void get(int fromIndex, int[] dest, int destOffset, int length) {
+        while (length > 0) {
+            int blockOffset = fromIndex & BLOCK_MASK;
+            int n = Math.min(length, BLOCK_SIZE - blockOffset);
+            int[] block = getBlock(fromIndex >>> BLOCK_SIZE_POWER, blockOffset + n - 1);
+            if (blockOffset + n > block.length) { // range exceeds size
+                inputData.get(fromIndex, dest, destOffset, n);
+            } else {
+                System.arraycopy(block, blockOffset, dest, destOffset, n);
+            }
+            fromIndex += n;
+            destOffset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public Scaling getScaling() {
+        return inputData.getScaling();
+    }
+
+    @Override
+    public boolean isAppendOnly() {
+        return inputData.isAppendOnly();
+    }
+
+    /**
+     * @param lastOffset the block must contain values up to this offset if the input data have them
+     */
+    private int[] getBlock(int blockNumber, int lastOffset) {
+        if (blockNumber == lastBlockNumber && lastOffset < lastBlock.length) {
+            return lastBlock;
+        }
+        long key = (id << 32) | blockNumber;
+        int[] block;
+        synchronized (blocks) {
+            block = blocks.get(key);
+        }
+        if (block == null || (block.length < BLOCK_SIZE && lastOffset >= block.length)) {
+            // not cached or the input data grew since the block was cached
+            int blockStart = blockNumber << BLOCK_SIZE_POWER;
+            int length = Math.max(0, Math.min(BLOCK_SIZE, inputData.size() - blockStart));
+            block = new int[length];
+            inputData.get(blockStart, block, 0, length);
+            synchronized (blocks) {
+                int[] previous = blocks.put(key, block);
+                if (previous != null) {
+                    cacheSize -= previous.length;
+                }
+                cacheSize += block.length;
+                removeEldest();
+            }
+        }
+        lastBlockNumber = blockNumber;
+        lastBlock = block;
+        return block;
+    }
+
+    private static void removeEldest() {
+        Iterator<Map.Entry<Long, int[]>> iterator = blocks.entrySet().iterator();
+        while (cacheSize > maxCacheSize && iterator.hasNext()) {
+            cacheSize -= iterator.next().getValue().length;
+            iterator.remove();
+        }
+    }
+}
@@ -6,20 +6,38 @@ package data;
  */
 
 public class DataCollector implements DataSeries {
+    private static final int BUFFER_SIZE = 4096;
     protected DataSeries inputData;
     protected DataList outputData;
+    private int[] buffer;
 
     public DataCollector(DataSeries inputData) {
+        this(inputData, true);
+    }
+
+    /**
+     * @param isCollectingNow if false data are not collected in the constructor
+     *                        (so subclasses that do not collect them never copy the input data)
+     */
+    protected DataCollector(DataSeries inputData, boolean isCollectingNow) {
         this.inputData = inputData;
         outputData = new DataList();
-        collectData();
+        if (isCollectingNow) {
+            collectData();
+        }
     }
 
 
     private void collectData() {
-        if (outputData.size()  < inputData.size()) {
-            for (int i = outputData.size(); i < inputData.size(); i++) {
-                outputData.add(inputData.get(i));
+        int inputSize = inputData.size();
+        if (outputData.size()  < inputSize) {
+            if (buffer == null) {
+                buffer = new int[BUFFER_SIZE];
+            }
+            for (int i = outputData.size(); i < inputSize; i += BUFFER_SIZE) {
+                int length = Math.min(BUFFER_SIZE, inputSize - i);
+                inputData.get(i, buffer, 0, length);
+                outputData.addAll(buffer, 0, length);
             }
         }
     }
@@ -30,6 +48,11 @@ public class DataCollector implements DataSeries {
         return outputData.get(index);
     }
 
+    @Override
+    public void get(int fromIndex, int[] dest, int destOffset, int length) {
+        collectData();
+        outputData.get(fromIndex, dest, destOffset, length);
+    }
 
     @Override
     public int size() {
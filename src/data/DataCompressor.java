@@ -1,9 +1,14 @@
 package data;
 
 public class DataCompressor implements DataSeries {
+    private static final int BUFFER_SIZE = 4096;
+    // with smaller compression raw input data are read directly
+    private static final int PYRAMID_MIN_COMPRESSION = 2 * DataPyramid.BLOCK_SIZE;
     private DataSeries inputData;
     private CompressionType compressionType;
     private double compression = 1;
+    private boolean isPyramidEnabled = true;
+    private DataPyramid pyramid;
 
     public DataCompressor(DataSeries inputData, CompressionType compressionType, double compression) {
         this.inputData = inputData;
@@ -17,10 +22,37 @@ public class DataCompressor implements DataSeries {
     }
 
 
+    /**
+     * By default big compressions of append only input data are calculated with the help
+     * of DataPyramid (min/max/sum index that grows together with input data).
+     * If already existing input values can change (input is not append only) pyramid is never used
+     */
+    public void setPyramidEnabled(boolean isPyramidEnabled) {
+        this.isPyramidEnabled = isPyramidEnabled;
+        if (!isPyramidEnabled) {
+            pyramid = null;
+        }
+    }
+
+    private boolean isPyramidUsed() {
+        if (!isPyramidEnabled || compression < PYRAMID_MIN_COMPRESSION || !inputData.isAppendOnly()) {
+            return false;
+        }
+        if (pyramid == null) {
+            pyramid = new DataPyramid(inputData);
+        }
+        pyramid.update();
+        return true;
+    }
+
     public void setCompression(double compression) {
         this.compression = compression;
     }
 
+    public double getCompression() {
+        return compression;
+    }
+
     public void setSamplingRate(double samplingRate) {
           if(inputData.getScaling() != null) {
               compression = 1 / (samplingRate * inputData.getScaling().getSamplingInterval());
@@ -43,6 +75,11 @@ public class DataCompressor implements DataSeries {
             int indexNew = Math.min(inputData.size() - 1, (int) (compression * index));
             return inputData.get(indexNew);
         }
+        if (isPyramidUsed()) {
+            int indexStart =  (int)((index) * compression);
+            int indexEnd = Math.min(inputData.size(), (int)((index+1) * compression));
+            return pyramid.compress(indexStart, indexEnd, compressionType);
+        }
 
         long result = 0;
         int indexStart =  (int)((index) * compression);
@@ -69,11 +106,76 @@ public class DataCompressor implements DataSeries {
         return (int)result;
     }
 
+    @Override
+    public void get(int fromIndex, int[] dest, int destOffset, int length) {
+        if (compression == 1) {
+            inputData.get(fromIndex, dest, destOffset, length);
+            return;
+        }
+        if (compression < 1 || length <= 0) {
+            DataSeries.super.get(fromIndex, dest, destOffset, length);
+            return;
+        }
+        if (isPyramidUsed()) {
+            int inputSize = inputData.size();
+            for (int index = fromIndex; index < fromIndex + length; index++) {
+                int indexStart =  (int)((index) * compression);
+                int indexEnd = Math.min(inputSize, (int)((index+1) * compression));
+                dest[destOffset + index - fromIndex] = pyramid.compress(indexStart, indexEnd, compressionType);
+            }
+            return;
+        }
+        // input data are read by blocks. Input ranges of subsequent points follow each other
+        int inputSize = inputData.size();
+        int inputEnd = Math.min(inputSize, (int)((fromIndex + length) * compression));
+        int[] buffer = new int[Math.min(BUFFER_SIZE, Math.max(1, inputEnd - (int)(fromIndex * compression)))];
+        int bufferStart = 0;
+        int bufferEnd = 0;
+        for (int index = fromIndex; index < fromIndex + length; index++) {
+            long result = 0;
+            boolean isZeroFound = false;
+            int indexStart =  (int)((index) * compression);
+            int indexEnd = Math.min(inputSize, (int)((index+1) * compression));
+            for (int i = indexStart; i < indexEnd && !isZeroFound; i++) {
+                if (i < bufferStart || i >= bufferEnd) {
+                    bufferStart = i;
+                    bufferEnd = Math.min(inputEnd, i + buffer.length);
+                    inputData.get(bufferStart, buffer, 0, bufferEnd - bufferStart);
+                }
+                int value = buffer[i - bufferStart];
+                if(compressionType == CompressionType.BOOLEAN) {
+                    isZeroFound = (value == 0);
+                }
+                else if(compressionType == CompressionType.MAX) {
+                    result = Math.max(result, Math.abs(value));
+                }
+                else if(compressionType == CompressionType.AVERAGE || compressionType == CompressionType.SUM) {
+                    result += value;
+                }
+            }
+            if(compressionType == CompressionType.AVERAGE && indexEnd > indexStart) {
+                result = result/(indexEnd - indexStart);
+            }
+            if(compressionType == CompressionType.BOOLEAN) {
+                result = isZeroFound ? 0 : 1;
+            }
+            dest[destOffset + index - fromIndex] = (int)result;
+        }
+    }
+
     @Override
     public int size() {
         return (int)(inputData.size() / compression);
     }
 
+    /**
+     * Only complete compressed points are available, so they do not change while input data grow
+     */
+    @Override
+    public boolean isAppendOnly() {
+        return compression >= 1 && inputData.isAppendOnly();
+    }
+
     @Override
     public Scaling getScaling() {
         Scaling scalingInput = inputData.getScaling();
@@ -1,24 +1,180 @@
 package data;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects compressed data. Collected data of several compressions are cached
+ * (least recently used are removed when the total size exceeds the cache size)
+ * so zooming back to the previous compression does not recalculate them.
+ * If possible a new compression is derived from the cached finer one
+ * instead of the input data.
+ * <p>
+ * Data are collected only if the input data are append only. Otherwise
+ * existing values can change so compressed values are always recalculated.
+ */
 public class DataCompressorCollecting extends DataCollector{
+    private static final int DEFAULT_CACHE_SIZE = 4 * 1024 * 1024; // number of ints (16 MB)
+    private static final double EPSILON = 1E-9;
+    private CompressionType compressionType;
+    private final boolean isCollecting;
+    private int cacheSize = DEFAULT_CACHE_SIZE;
+    // collected data by compressions in access order (the most recently used are the last)
+    private LinkedHashMap<Double, DataList> cache = new LinkedHashMap<Double, DataList>(16, 0.75f, true);
 
     public DataCompressorCollecting(DataSeries inputData, CompressionType compressionType, int compression) {
-        super(new DataCompressor(inputData, compressionType, compression));
+        super(new DataCompressor(inputData, compressionType, compression), inputData.isAppendOnly());
+        this.compressionType = compressionType;
+        isCollecting = inputData.isAppendOnly();
+        if (isCollecting) {
+            cache.put(getCompression(), outputData);
+        }
     }
 
     public DataCompressorCollecting(DataSeries inputData, CompressionType compressionType) {
-        super(new DataCompressor(inputData, compressionType));
+        super(new DataCompressor(inputData, compressionType), inputData.isAppendOnly());
+        this.compressionType = compressionType;
+        isCollecting = inputData.isAppendOnly();
+        if (isCollecting) {
+            cache.put(getCompression(), outputData);
+        }
+    }
+
+    /**
+     * @param cacheSize max total number of cached values (of all compressions)
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+        removeEldest();
     }
 
     public void setCompression(double compression) {
         DataCompressor compressedInput = (DataCompressor) inputData;
         compressedInput.setCompression(compression);
-        outputData = new DataList();
+        onCompressionChanged();
     }
 
     public void setSamplingRate(double samplingRate) {
         DataCompressor compressedInput = (DataCompressor) inputData;
         compressedInput.setSamplingRate(samplingRate);
-        outputData = new DataList();
+        onCompressionChanged();
+    }
+
+    private double getCompression() {
+        return ((DataCompressor) inputData).getCompression();
+    }
+
+    @Override
+    public int get(int index) {
+        if (!isCollecting) {
+            return inputData.get(index);
+        }
+        return super.get(index);
+    }
+
+    @Override
+    public void get(int fromIndex, int[] dest, int destOffset, int length) {
+        if (!isCollecting) {
+            inputData.get(fromIndex, dest, destOffset, length);
+            return;
+        }
+        super.get(fromIndex, dest, destOffset, length);
+    }
+
+    @Override
+    public int size() {
+        if (!isCollecting) {
+            return inputData.size();
+        }
+        return super.size();
+    }
+
+    private void onCompressionChanged() {
+        if (!isCollecting) {
+            return;
+        }
+        double compression = getCompression();
+        DataList cachedData = cache.get(compression);
+        if (cachedData == null) {
+            cachedData = deriveFromFinerCompression(compression);
+            cache.put(compression, cachedData);
+        }
+        outputData = cachedData;
+        removeEldest();
+    }
+
+    /**
+     * If there is a cached integer compression c0 such that compression = k * c0 (k integer)
+     * every new value is exactly the combination of k cached values.
+     * For AVERAGE it is not exact (because of rounding) so it is always calculated from input data
+     */
+    private DataList deriveFromFinerCompression(double compression) {
+        DataList result = new DataList();
+        if (compressionType == CompressionType.AVERAGE) {
+            return result;
+        }
+        DataList finerData = null;
+        int factor = 0;
+        for (Map.Entry<Double, DataList> entry : cache.entrySet()) {
+            double cachedCompression = entry.getKey();
+            if (cachedCompression < 1 || Math.abs(cachedCompression - Math.round(cachedCompression)) > EPSILON) {
+                continue;
+            }
+            double k = compression / cachedCompression;
+            int kRounded = (int) Math.round(k);
+            if (kRounded > 1 && Math.abs(k - kRounded) < EPSILON && Math.abs(compression - kRounded * Math.round(cachedCompression)) < EPSILON) {
+                // the finest is the best: it is the longest one
+                if (finerData == null || kRounded > factor) {
+                    finerData = entry.getValue();
+                    factor = kRounded;
+                }
+            }
+        }
+        if (finerData == null) {
+            return result;
+        }
+        int resultSize = finerData.size() / factor;
+        int[] buffer = new int[factor];
+        for (int i = 0; i < resultSize; i++) {
+            finerData.get(i * factor, buffer, 0, factor);
+            result.add(combine(buffer));
+        }
+        return result;
+    }
+
+    private int combine(int[] values) {
+        long result = 0;
+        if (compressionType == CompressionType.BOOLEAN) {
+            result = 1;
+        }
+        for (int value : values) {
+            if (compressionType == CompressionType.MAX) {
+                result = Math.max(result, Math.abs(value));
+            } else if (compressionType == CompressionType.SUM) {
+                result += value;
+            } else if (compressionType == CompressionType.BOOLEAN && value == 0) {
+                result = 0;
+            }
+        }
+        return (int) result;
+    }
+
+    /**
+     * Remove least recently used compressions (but never the current one)
+     */
+    private void removeEldest() {
+        long totalSize = 0;
+        for (DataList data : cache.values()) {
+            totalSize += data.size();
+        }
+        Iterator<DataList> iterator = cache.values().iterator();
+        while (totalSize > cacheSize && iterator.hasNext()) {
+            DataList data = iterator.next();
+            if (data != outputData) {
+                totalSize -= data.size();
+                iterator.remove();
+            }
+        }
     }
 }
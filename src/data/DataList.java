@@ -3,13 +3,22 @@ package data;
 
 import gnu.trove.list.array.TIntArrayList;
 
+import java.nio.IntBuffer;
+
 
 /**
 
  */
 public class DataList  implements DataSeries {
     private TIntArrayList intArrayList;
+    // if not null data are stored in chunks instead of intArrayList
+    private ChunkedIntArray chunkedArray;
+    // if not null data are stored compressed instead of intArrayList
+    private CompressedIntArray compressedArray;
     private Scaling scaling;
+    // already stored data (for example memory mapped from file) that new values are appended to
+    private IntBuffer storedData;
+    private int storedDataSize;
 
 
     public DataList() {
@@ -19,12 +28,134 @@ public class DataList  implements DataSeries {
         intArrayList = TIntArrayList.wrap(array);
     }
 
+    /**
+     * Create DataList whose first values are taken from the given buffer
+     * (from its position to its limit) without copying them to the heap.
+     * If the buffer is read only the stored values can not be changed by set()
+     */
+    public DataList(IntBuffer storedData) {
+        this();
+        this.storedData = storedData.slice();
+        storedDataSize = this.storedData.limit();
+    }
+
+    /**
+     * Store appended data in fixed size chunks (heap or off-heap) instead of
+     * one growing array. So appending never copies the data already stored.
+     * With chunked storage one thread may append data while other threads read them
+     * (size is published only after the values are written).
+     * Can be set only while no data were appended to the list.
+     */
+    public void setChunkedStorage(boolean isOffHeap) throws IllegalStateException {
+        if (size() > storedDataSize) {
+            throw new IllegalStateException("Storage can not be changed when DataList is not empty");
+        }
+        intArrayList = null;
+        compressedArray = null;
+        chunkedArray = new ChunkedIntArray(isOffHeap);
+    }
+
+    /**
+     * Store appended data in lossless compressed blocks (delta + zig-zag + bit-packing).
+     * Needs several times less memory for slow signals but every access is slower.
+     * Can be set only while no data were appended to the list.
+     */
+    public void setCompressedStorage() throws IllegalStateException {
+        if (size() > storedDataSize) {
+            throw new IllegalStateException("Storage can not be changed when DataList is not empty");
+        }
+        intArrayList = null;
+        chunkedArray = null;
+        compressedArray = new CompressedIntArray();
+    }
+
+    /**
+     * Old chunks of the chunked storage will be spilled to a temporary file
+     * when the number of chunks in memory exceeds the given value (negative - never)
+     */
+    public void setMaxChunksInMemory(int maxChunksInMemory) throws IllegalStateException {
+        if (chunkedArray == null) {
+            throw new IllegalStateException("Spilling is possible only for chunked storage");
+        }
+        chunkedArray.setMaxChunksInMemory(maxChunksInMemory);
+    }
+
+    /**
+     * Release the storage resources (spill file of the chunked storage).
+     * Stored values stay readable but no more chunks are spilled
+     */
+    public void close() {
+        if (chunkedArray != null) {
+            chunkedArray.close();
+        }
+    }
+
     public void add(int value) {
-        intArrayList.add(value);
+        if (compressedArray != null) {
+            compressedArray.add(value);
+        } else if (chunkedArray != null) {
+            chunkedArray.add(value);
+        } else {
+            intArrayList.add(value);
+        }
+    }
+
+    public void addAll(int[] values, int offset, int length) {
+        if (compressedArray != null) {
+            compressedArray.addAll(values, offset, length);
+        } else if (chunkedArray != null) {
+            chunkedArray.addAll(values, offset, length);
+        } else {
+            intArrayList.add(values, offset, length);
+        }
     }
 
     public void set(int index, int value) {
-        intArrayList.set(index, value);
+        if (index < storedDataSize) {
+            storedData.put(index, value);
+        } else if (compressedArray != null) {
+            compressedArray.set(index - storedDataSize, value);
+        } else if (chunkedArray != null) {
+            chunkedArray.set(index - storedDataSize, value);
+        } else {
+            intArrayList.set(index - storedDataSize, value);
+        }
+    }
+
+    /**
+     * @return read only view of the values the list has now. The view size does not change
+     * when new values are appended. With chunked or compressed storage the view
+     * can be read from any thread while the list is appended by another one
+     */
+    public DataSeries snapshot() {
+        final int snapshotSize = size();
+        return new DataSeries() {
+            @Override
+            public int size() {
+                return snapshotSize;
+            }
+
+            @Override
+            public int get(int index) {
+                if (index >= snapshotSize) {
+                    throw new IndexOutOfBoundsException("Index = " + index + " Size = " + snapshotSize);
+                }
+                return DataList.this.get(index);
+            }
+
+            @Override
+            public void get(int fromIndex, int[] dest, int destOffset, int length) {
+                if (fromIndex + length > snapshotSize) {
+                    throw new IndexOutOfBoundsException("Index = " + (fromIndex + length - 1) + " Size = " + snapshotSize);
+                }
+                DataList.this.get(fromIndex, dest, destOffset, length);
+            }
+
+            @Override
+            public Scaling getScaling() {
+                return DataList.this.getScaling();
+            }
+        };
     }
 
     public void setScaling(Scaling scaling) {
@@ -33,12 +164,49 @@ public class DataList  implements DataSeries {
 
     @Override
     public int size() {
-        return intArrayList.size();
+        if (compressedArray != null) {
+            return storedDataSize + compressedArray.size();
+        }
+        if (chunkedArray != null) {
+            return storedDataSize + chunkedArray.size();
+        }
+        return storedDataSize + intArrayList.size();
     }
 
     @Override
     public int get(int index) {
-        return intArrayList.get(index);
+        if (index < storedDataSize) {
+            return storedData.get(index);
+        }
+        if (compressedArray != null) {
+            return compressedArray.get(index - storedDataSize);
+        }
+        if (chunkedArray != null) {
+            return chunkedArray.get(index - storedDataSize);
+        }
+        return intArrayList.get(index - storedDataSize);
+    }
+
+    @Override
+    public void get(int fromIndex, int[] dest, int destOffset, int length) {
+        if (fromIndex < storedDataSize) {
+            int storedLength = Math.min(length, storedDataSize - fromIndex);
+            IntBuffer buffer = storedData.duplicate();
+            buffer.position(fromIndex);
+            buffer.get(dest, destOffset, storedLength);
+            fromIndex += storedLength;
+            destOffset += storedLength;
+            length -= storedLength;
+        }
+        if (length > 0) {
+            if (compressedArray != null) {
+                compressedArray.get(fromIndex - storedDataSize, dest, destOffset, length);
+            } else if (chunkedArray != null) {
+                chunkedArray.get(fromIndex - storedDataSize, dest, destOffset, length);
+            } else {
+                intArrayList.toArray(dest, fromIndex - storedDataSize, destOffset, length);
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,178 @@
+package data;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+
+/**
+ * Multi-resolution (level of detail) index of the input data.
+ * Level 0 stores min, max, min of absolute values and sum of every block of BLOCK_SIZE input values,
+ * every next level stores the same for the blocks twice bigger.
+ * Only complete blocks are indexed. The index grows incrementally together with the input data
+ * (input data are supposed to be append only: already indexed values never change).
+ * <p>
+ * Any compression (AVERAGE, MAX, SUM, BOOLEAN) of the range [start, end)
+ * is calculated from O(log(range)) blocks plus no more than 2 * BLOCK_SIZE raw values.
+ */
+class DataPyramid {
+    static final int BLOCK_SIZE_POWER = 6;
+    static final int BLOCK_SIZE = 1 << BLOCK_SIZE_POWER; // 64
+    private static final int BUFFER_SIZE = 64 * BLOCK_SIZE;
+
+    private DataSeries inputData;
+    private TIntArrayList[] mins = new TIntArrayList[0];
+    private TIntArrayList[] maxs = new TIntArrayList[0];
+    private TIntArrayList[] absMins = new TIntArrayList[0];
+    private TLongArrayList[] sums = new TLongArrayList[0];
+    private int[] buffer = new int[BUFFER_SIZE];
+
+    // aggregates of the current range
+    private int min;
+    private int max;
+    private int absMin;
+    private long sum;
+
+    DataPyramid(DataSeries inputData) {
+        this.inputData = inputData;
+    }
+
+    /**
+     * Index new complete blocks of the input data
+     */
+    void update() {
+        int inputSize = inputData.size();
+        int indexedSize = getIndexedSize();
+        while (indexedSize + BLOCK_SIZE <= inputSize) {
+            int length = Math.min(BUFFER_SIZE, (inputSize - indexedSize) / BLOCK_SIZE * BLOCK_SIZE);
+            inputData.get(indexedSize, buffer, 0, length);
+            for (int blockStart = 0; blockStart < length; blockStart += BLOCK_SIZE) {
+                resetAggregates();
+                addRaw(buffer, blockStart, blockStart + BLOCK_SIZE);
+                addBlock(0, min, max, absMin, sum);
+            }
+            indexedSize += length;
+        }
+    }
+
+    /**
+     * @return compressed value of the input data range [start, end)
+     */
+    int compress(int start, int end, CompressionType compressionType) {
+        resetAggregates();
+        int indexedSize = getIndexedSize();
+        int position = start;
+        while (position < end) {
+            if ((position & (BLOCK_SIZE - 1)) == 0 && position + BLOCK_SIZE <= Math.min(end, indexedSize)) {
+                // the biggest block that starts at the position and ends inside the range
+                int level = 0;
+                int blockNumber = position >>> BLOCK_SIZE_POWER;
+                while (level + 1 < mins.length && (blockNumber & 1) == 0
+                        && (blockNumber >>> 1) < mins[level + 1].size()
+                        && position + (BLOCK_SIZE << (level + 1)) <= end) {
+                    level++;
+                    blockNumber >>>= 1;
+                }
+                addAggregates(mins[level].get(blockNumber), maxs[level].get(blockNumber),
+                        absMins[level].get(blockNumber), sums[level].get(blockNumber));
+                position += BLOCK_SIZE << level;
+            } else {
+                // raw values till the next block start
+                int rawEnd = Math.min(end, (position & ~(BLOCK_SIZE - 1)) + BLOCK_SIZE);
+                if (position >= indexedSize) {
+                    rawEnd = Math.min(end, position + BUFFER_SIZE);
+                }
+                inputData.get(position, buffer, 0, rawEnd - position);
+                addRaw(buffer, 0, rawEnd - position);
+                position = rawEnd;
+            }
+        }
+
+        switch (compressionType) {
+            case AVERAGE:
+                return end > start ? (int) (sum / (end - start)) : 0;
+            case SUM:
+                return (int) sum;
+            case MAX:
+                if (end <= start) {
+                    return 0;
+                }
+                return (int) Math.max(Math.abs((long) min), Math.abs((long) max));
+            case BOOLEAN:
+                return (end > start && absMin == 0) ? 0 : 1;
+        }
+        return 0;
+    }
+
+    private int getIndexedSize() {
+        if (mins.length == 0) {
+            return 0;
+        }
+        return mins[0].size() << BLOCK_SIZE_POWER;
+    }
+
+    private void resetAggregates() {
+        min = Integer.MAX_VALUE;
+        max = Integer.MIN_VALUE;
+        absMin = Integer.MAX_VALUE;
+        sum = 0;
+    }
+
+    private void addRaw(int[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int value = values[i];
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            absMin = Math.min(absMin, Math.abs(value));
+            sum += value;
+        }
+    }
+
+    private void addAggregates(int blockMin, int blockMax, int blockAbsMin, long blockSum) {
+        min = Math.min(min, blockMin);
+        max = Math.max(max, blockMax);
+        absMin = Math.min(absMin, blockAbsMin);
+        sum += blockSum;
+    }
+
+    /**
+     * Add block to the given level and, if it completes a pair, the parent block to the next level
+     */
+    private void addBlock(int level, int blockMin, int blockMax, int blockAbsMin, long blockSum) {
+        if (level == mins.length) {
+            addLevel();
+        }
+        mins[level].add(blockMin);
+        maxs[level].add(blockMax);
+        absMins[level].add(blockAbsMin);
+        sums[level].add(blockSum);
+        int size = mins[level].size();
+        if ((size & 1) == 0) {
+            int first = size - 2;
+            int second = size - 1;
+            addBlock(level + 1,
+                    Math.min(mins[level].get(first), mins[level].get(second)),
+                    Math.max(maxs[level].get(first), maxs[level].get(second)),
+                    Math.min(absMins[level].get(first), absMins[level].get(second)),
+                    sums[level].get(first) + sums[level].get(second));
+        }
+    }
+
+    private void addLevel() {
+        int levels = mins.length + 1;
+        TIntArrayList[] newMins = new TIntArrayList[levels];
+        TIntArrayList[] newMaxs = new TIntArrayList[levels];
+        TIntArrayList[] newAbsMins = new TIntArrayList[levels];
+        TLongArrayList[] newSums = new TLongArrayList[levels];
+        System.arraycopy(mins, 0, newMins, 0, mins.length);
+        System.arraycopy(maxs, 0, newMaxs, 0, maxs.length);
+        System.arraycopy(absMins, 0, newAbsMins, 0, absMins.length);
+        System.arraycopy(sums, 0, newSums, 0, sums.length);
+        newMins[levels - 1] = new TIntArrayList();
+        newMaxs[levels - 1] = new TIntArrayList();
+        newAbsMins[levels - 1] = new TIntArrayList();
+        newSums[levels - 1] = new TLongArrayList();
+        mins = newMins;
+        maxs = newMaxs;
+        absMins = newAbsMins;
+        sums = newSums;
+    }
+}
@@ -20,4 +20,23 @@ public interface DataSeries {
     public int size();
     public int get(int index);
     public Scaling getScaling();
+
+    /**
+     * Bulk read: copy length values starting from fromIndex to the dest array.
+     * Implementations with stored data should override it to copy arrays
+     * instead of calling get(index) for every value
+     */
+    public default void get(int fromIndex, int[] dest, int destOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            dest[destOffset + i] = get(fromIndex + i);
+        }
+    }
+
+    /**
+     * @return true if already existing values never change and new values are only appended
+     * (like DataStore channels). Only such data can be indexed or cached incrementally
+     */
+    public default boolean isAppendOnly() {
+        return false;
+    }
 }
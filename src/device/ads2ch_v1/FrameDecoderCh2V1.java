@@ -22,6 +22,7 @@ public class FrameDecoderCh2V1 extends FrameDecoder {
     private AdsConfiguration adsConfiguration;
     private int previousFrameCounter = -1;
     private byte[] lostFrame;
+    private byte[] decodedFrame; // reused, listeners copy frames they keep
 
 
     public FrameDecoderCh2V1(AdsConfiguration configuration) {
@@ -30,6 +31,7 @@ public class FrameDecoderCh2V1 extends FrameDecoder {
         dataRecordSize = getRawFrameSize(configuration);
         decodedFrameSize = getDecodedFrameSize(configuration);
         lostFrame = new byte[decodedFrameSize];
+        decodedFrame = new byte[decodedFrameSize];
         rawFrame = new byte[dataRecordSize];
         log.info("Com port frame size: " + dataRecordSize + " bytes");
     }
@@ -66,6 +68,40 @@ public class FrameDecoderCh2V1 extends FrameDecoder {
         }
     }
 
+    /**
+     * Frame start is found by scanning for the marker and the frame body is copied
+     * by System.arraycopy. Only the frame header and the last (stop marker) byte
+     * go through the byte by byte state machine
+     */
+    @Override
+    public void onBytesReceived(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            if (frameIndex == 0) {
+                int frameStart = i;
+                while (frameStart < end && bytes[frameStart] != START_FRAME_MARKER) {
+                    frameStart++;
+                }
+                if (frameStart > i) {
+                    log.warn("Lost Frame. " + (frameStart - i) + " bytes before start frame marker skipped");
+                    i = frameStart;
+                    continue;
+                }
+            }
+            if (frameIndex > 2) {
+                int n = Math.min(end - i, Math.min(frameSize - 1, rawFrame.length) - frameIndex);
+                if (n > 0) {
+                    System.arraycopy(bytes, i, rawFrame, frameIndex, n);
+                    frameIndex += n;
+                    i += n;
+                    continue;
+                }
+            }
+            onByteReceived(bytes[i++]);
+        }
+    }
+
     private void onFrameReceived() {
         if (rawFrame[1] == START_FRAME_MARKER) {
             onDataRecordReceived();
@@ -77,7 +113,6 @@ public class FrameDecoderCh2V1 extends FrameDecoder {
 
     private void onDataRecordReceived() {
         int counter = BdfParser.bytesToUnsignedInt(rawFrame[2], rawFrame[3]);
-        byte[] decodedFrame = new byte[decodedFrameSize];
         int rawFrameOffset = 4;
         int decodedFrameOffset = 0;
         for (int i = 0; i < numberOf3ByteSamples * 3; i++) {
@@ -14,6 +14,7 @@ public class FrameDecoderCh8V0 extends FrameDecoder {
     private int inputFrameSize;
     private int outputFrameSize;
     private byte[] inputFrame;
+    private byte[] outputFrame; // reused, listeners copy frames they keep
 
     private static final Log log = LogFactory.getLog(FrameDecoderCh8V0.class);
 
@@ -28,6 +29,7 @@ public class FrameDecoderCh8V0 extends FrameDecoder {
         // to store 2 bytes of device specific information
         outputFrameSize = totalNumberOfDataSamples * numberOfBytesInDataFormat + numberOfBytesInDataFormat;
         inputFrame = new byte[inputFrameSize];
+        outputFrame = new byte[outputFrameSize];
 
         log.info("Com port frame size: " + inputFrameSize + " bytes");
         log.info("Decoded frame size: " + outputFrameSize + " bytes");
@@ -43,16 +45,51 @@ public class FrameDecoderCh8V0 extends FrameDecoder {
         } else if (index == (inputFrameSize - 1)) {
             inputFrame[index] = inByte;
             index = 0;
-
-            byte[] outputFrame = new byte[outputFrameSize];
-            // copy inputFrame to outputFrame skipping fist marker byte
-            System.arraycopy(inputFrame, 1, outputFrame, 0, inputFrame.length - 1);
-            notifyFrameListeners(outputFrame);
-
+            onFrameReceived();
         } else {
             log.warn("Lost Frame. Frame index = " + index + " inByte = " + inByte);
             index = 0;
         }
     }
 
+    /**
+     * Frame start is found by scanning for the marker and the frame body is copied by System.arraycopy
+     */
+    @Override
+    public void onBytesReceived(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            if (index == 0) {
+                int frameStart = i;
+                while (frameStart < end && bytes[frameStart] != START_FRAME_MARKER) {
+                    frameStart++;
+                }
+                if (frameStart > i) {
+                    log.warn("Lost Frame. " + (frameStart - i) + " bytes before start frame marker skipped");
+                }
+                if (frameStart == end) {
+                    return;
+                }
+                inputFrame[0] = bytes[frameStart];
+                index = 1;
+                i = frameStart + 1;
+            }
+            int n = Math.min(end - i, inputFrameSize - index);
+            System.arraycopy(bytes, i, inputFrame, index, n);
+            index += n;
+            i += n;
+            if (index == inputFrameSize) {
+                index = 0;
+                onFrameReceived();
+            }
+        }
+    }
+
+    private void onFrameReceived() {
+        // copy inputFrame to outputFrame skipping fist marker byte
+        System.arraycopy(inputFrame, 1, outputFrame, 0, inputFrame.length - 1);
+        notifyFrameListeners(outputFrame);
+    }
+
 }
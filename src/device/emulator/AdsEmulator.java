@@ -0,0 +1,211 @@
+package device.emulator;
+
+import device.ads2ch_v1.AdsConfiguratorCh2V1;
+import device.ads8ch_v0.AdsConfiguratorCh8V0;
+import device.ads8ch_v1.AdsConfiguratorCh8V1;
+import device.general.Ads;
+import device.general.AdsConfiguration;
+import device.general.FrameDecoder;
+import device.general.FrameListener;
+import dreamrec.ApplicationException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Software ads device. Instead of reading the com port it generates the byte stream
+ * the real device would send (markers, frame counters, ads and accelerometer samples)
+ * and feeds it in blocks to the real FrameDecoder of the emulated device version.
+ * <p>
+ * Samples are synthetic (see SyntheticSignalSource) or replayed from the bdf file.
+ * Frames are generated in real time (speed = 1), faster or slower (speed = 2, 0.5...)
+ * or as fast as possible (speed = 0) to measure the max throughput of the whole pipeline.
+ * Frames could be randomly dropped (with their counter incremented) to emulate frame loss.
+ */
+public class AdsEmulator extends Ads {
+    private static final Log log = LogFactory.getLog(AdsEmulator.class);
+    private static final int BLOCK_SIZE = 4096; // bytes fed to the frame decoder at once (as com port does)
+
+    public enum FrameFormat {
+        ADS2CH_V1,
+        ADS8CH_V1,
+        ADS8CH_V0
+    }
+
+    private AdsConfiguration adsConfiguration;
+    private FrameFormat frameFormat = FrameFormat.ADS2CH_V1;
+    private double speed = 1;
+    private double frameLossProbability = 0;
+    private File sourceFile;
+
+    private volatile Thread emulatorThread;
+    private volatile long numberOfFrames;
+    private volatile long numberOfLostFrames;
+
+    @Override
+    public void setAdsConfigurator(AdsConfiguration adsConfiguration) {
+        this.adsConfiguration = adsConfiguration;
+        switch (frameFormat) {
+            case ADS8CH_V1:
+                adsConfigurator = new AdsConfiguratorCh8V1(adsConfiguration);
+                break;
+            case ADS8CH_V0:
+                adsConfigurator = new AdsConfiguratorCh8V0(adsConfiguration);
+                break;
+            default:
+                adsConfigurator = new AdsConfiguratorCh2V1(adsConfiguration);
+        }
+    }
+
+    public void setFrameFormat(FrameFormat frameFormat) {
+        this.frameFormat = frameFormat;
+        if (adsConfiguration != null) {
+            setAdsConfigurator(adsConfiguration);
+        }
+    }
+
+    /**
+     * @param speed 1 - real time, > 1 - faster, < 1 - slower, 0 - as fast as possible
+     */
+    public void setSpeed(double speed) {
+        if (speed < 0) {
+            String msg = "Speed = " + speed + ". Expected >= 0";
+            throw new IllegalArgumentException(msg);
+        }
+        this.speed = speed;
+    }
+
+    /**
+     * @param frameLossProbability probability for every frame to be lost [0, 1)
+     */
+    public void setFrameLossProbability(double frameLossProbability) {
+        if (frameLossProbability < 0 || frameLossProbability >= 1) {
+            String msg = "Frame loss probability = " + frameLossProbability + ". Expected 0 <= probability < 1";
+            throw new IllegalArgumentException(msg);
+        }
+        this.frameLossProbability = frameLossProbability;
+    }
+
+    /**
+     * @param sourceFile bdf file to replay. If null - synthetic signals are generated
+     */
+    public void setSourceFile(File sourceFile) {
+        this.sourceFile = sourceFile;
+    }
+
+    /**
+     * @return number of generated frames (lost frames included)
+     */
+    public long getNumberOfFrames() {
+        return numberOfFrames;
+    }
+
+    public long getNumberOfLostFrames() {
+        return numberOfLostFrames;
+    }
+
+    @Override
+    public void startReading() throws ApplicationException {
+        final FrameEncoder frameEncoder = frameFormat == FrameFormat.ADS8CH_V0 ?
+                new FrameEncoderCh8V0(adsConfiguration) : new FrameEncoderCh2V1(adsConfiguration);
+        final double framePeriod = (double) adsConfiguration.getMaxDivider().getValue() / adsConfiguration.getSps().getValue();
+        final SignalSource signalSource = sourceFile == null ?
+                new SyntheticSignalSource(frameEncoder, framePeriod) : new BdfSignalSource(sourceFile, frameEncoder);
+        final FrameDecoder frameDecoder = adsConfigurator.getFrameDecoder();
+        frameDecoder.addFrameListener(new FrameListener() {
+            @Override
+            public void onFrameReceived(byte[] frame) {
+                notifyAdsDataListeners(frame);
+            }
+        });
+        numberOfFrames = 0;
+        numberOfLostFrames = 0;
+        isRecording = true;
+        emulatorThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    emulate(frameEncoder, signalSource, frameDecoder, framePeriod);
+                } finally {
+                    if (signalSource instanceof BdfSignalSource) {
+                        ((BdfSignalSource) signalSource).close();
+                    }
+                }
+            }
+        }, "AdsEmulator");
+        emulatorThread.setDaemon(true);
+        emulatorThread.start();
+        log.info("Ads emulator started. Format: " + frameFormat + " speed: " + speed
+                + " frame loss: " + frameLossProbability + " source: " + (sourceFile == null ? "synthetic" : sourceFile.getName()));
+    }
+
+    private void emulate(FrameEncoder frameEncoder, SignalSource signalSource, FrameDecoder frameDecoder, double framePeriod) {
+        int frameSize = frameEncoder.getFrameSize();
+        int framesInBlock = Math.max(1, BLOCK_SIZE / frameSize);
+        byte[] block = new byte[framesInBlock * frameSize];
+        int numberOfSamples = 0;
+        for (int n : frameEncoder.getNumberOfSamplesInFrame()) {
+            numberOfSamples += n;
+        }
+        int[] samples = new int[numberOfSamples];
+        Random random = new Random();
+        long startTime = System.nanoTime();
+        double framePeriodNanos = speed > 0 ? framePeriod * 1e9 / speed : 0;
+        while (isRecording) {
+            int framesToSend = framesInBlock;
+            if (speed > 0) {
+                long dueFrames = (long) ((System.nanoTime() - startTime) / framePeriodNanos) + 1;
+                framesToSend = (int) Math.min(framesInBlock, dueFrames - numberOfFrames);
+                if (framesToSend <= 0) {
+                    long nextFrameTime = startTime + (long) (dueFrames * framePeriodNanos);
+                    sleepNanos(Math.min(nextFrameTime - System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(10)));
+                    continue;
+                }
+            }
+            int length = 0;
+            for (int i = 0; i < framesToSend; i++) {
+                signalSource.nextFrame(samples);
+                int frameCounter = (int) numberOfFrames++;
+                if (frameLossProbability > 0 && random.nextDouble() < frameLossProbability) {
+                    numberOfLostFrames++;
+                } else {
+                    length += frameEncoder.encodeFrame(frameCounter, samples, block, length);
+                }
+            }
+            frameDecoder.onBytesReceived(block, 0, length);
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        log.info("Ads emulator stopped. " + numberOfFrames + " frames (" + numberOfLostFrames + " lost) in "
+                + String.format("%.1f", seconds) + " sec: " + String.format("%.0f", numberOfFrames / seconds) + " frames/sec, "
+                + String.format("%.0f", numberOfFrames * numberOfSamples / seconds) + " samples/sec");
+    }
+
+    private void sleepNanos(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void stopReading() {
+        isRecording = false;
+        Thread thread = emulatorThread;
+        emulatorThread = null;
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                log.warn(e);
+            }
+        }
+        super.stopReading(); // only notifies listeners as isRecording is false
+    }
+}
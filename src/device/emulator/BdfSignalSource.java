@@ -0,0 +1,62 @@
+package device.emulator;
+
+import bdf.BdfMappedReader;
+import bdf.BdfParser;
+import bdf.SignalConfig;
+import dreamrec.ApplicationException;
+
+import java.io.File;
+
+/**
+ * Replays data records of the bdf file (in a loop). Every data record gives one frame
+ * so the first signals of the file must have the same number of samples
+ * in each data record as the frame signals
+ */
+class BdfSignalSource implements SignalSource {
+    private final BdfMappedReader bdfReader;
+    private final BdfParser bdfParser;
+    private final int numberOfSignals;
+    private final byte[] dataRecord;
+    private int recordNumber;
+
+    BdfSignalSource(File file, FrameEncoder frameEncoder) throws ApplicationException {
+        bdfReader = new BdfMappedReader(file);
+        SignalConfig[] signalConfigs = bdfReader.getBdfConfig().getSignalConfigs();
+        int[] numberOfSamplesInFrame = frameEncoder.getNumberOfSamplesInFrame();
+        numberOfSignals = numberOfSamplesInFrame.length;
+        if (signalConfigs.length < numberOfSignals || bdfReader.getNumberOfDataRecords() == 0) {
+            bdfReader.stopReading();
+            throw new ApplicationException("File " + file.getName() + " does not fit the emulated device configuration");
+        }
+        int[] numberOfSamplesInEachDataRecord = new int[signalConfigs.length];
+        for (int i = 0; i < signalConfigs.length; i++) {
+            numberOfSamplesInEachDataRecord[i] = signalConfigs[i].getNumberOfSamplesInEachDataRecord();
+            if (i < numberOfSignals && numberOfSamplesInEachDataRecord[i] != numberOfSamplesInFrame[i]) {
+                bdfReader.stopReading();
+                String msg = "File " + file.getName() + " signal " + i + ": " + numberOfSamplesInEachDataRecord[i]
+                        + " samples in data record. Expected: " + numberOfSamplesInFrame[i];
+                throw new ApplicationException(msg);
+            }
+        }
+        bdfParser = new BdfParser(bdfReader.getBdfConfig().getNumberOfBytesInDataFormat(), numberOfSamplesInEachDataRecord);
+        dataRecord = new byte[bdfReader.getDataRecordSize()];
+    }
+
+    @Override
+    public void nextFrame(int[] samples) {
+        try {
+            bdfReader.readDataRecord(recordNumber, dataRecord, 0);
+        } catch (ApplicationException e) {
+            throw new IllegalStateException(e);
+        }
+        recordNumber = (recordNumber + 1) % bdfReader.getNumberOfDataRecords();
+        int offset = 0;
+        for (int signal = 0; signal < numberOfSignals; signal++) {
+            offset += bdfParser.parseDataRecordSignal(dataRecord, signal, samples, offset);
+        }
+    }
+
+    void close() {
+        bdfReader.stopReading();
+    }
+}
@@ -0,0 +1,23 @@
+package device.emulator;
+
+/**
+ * Encodes samples of one frame to the bytes the device sends to the com port
+ */
+interface FrameEncoder {
+    public int getFrameSize();
+
+    /**
+     * @return number of samples of every signal in one frame (in frame order)
+     */
+    public int[] getNumberOfSamplesInFrame();
+
+    /**
+     * @return number of signals that are accelerometer signals (the last ones)
+     */
+    public int getNumberOfAccelerometerSignals();
+
+    /**
+     * @return number of written bytes
+     */
+    public int encodeFrame(int frameCounter, int[] samples, byte[] dest, int offset);
+}
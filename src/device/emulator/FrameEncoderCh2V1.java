@@ -0,0 +1,86 @@
+package device.emulator;
+
+import device.ads2ch_v1.FrameDecoderCh2V1;
+import device.general.AdsConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Frames decoded by FrameDecoderCh2V1 (and FrameDecoderCh8V1):
+ * 2 start markers, 2 bytes frame counter, 3 bytes for every ads sample,
+ * 2 bytes for every accelerometer axis, 1 byte lead off status (if enabled), stop marker
+ */
+class FrameEncoderCh2V1 implements FrameEncoder {
+    private final int frameSize;
+    private final int[] numberOfSamplesInFrame;
+    private final int numberOfAdsSamples;
+    private final boolean isAccelerometerEnabled;
+    private final boolean isLoffEnabled;
+
+    FrameEncoderCh2V1(AdsConfiguration adsConfiguration) {
+        List<Integer> samples = new ArrayList<Integer>();
+        int adsSamples = 0;
+        for (int i = 0; i < adsConfiguration.getNumberOfAdsChannels(); i++) {
+            if (adsConfiguration.isChannelEnabled(i)) {
+                int n = adsConfiguration.getMaxDivider().getValue() / adsConfiguration.getChannelDivider(i).getValue();
+                samples.add(n);
+                adsSamples += n;
+            }
+        }
+        isAccelerometerEnabled = adsConfiguration.isAccelerometerEnabled();
+        if (isAccelerometerEnabled) {
+            for (int i = 0; i < 3; i++) {
+                samples.add(1);
+            }
+        }
+        isLoffEnabled = adsConfiguration.isLoffEnabled();
+        numberOfAdsSamples = adsSamples;
+        numberOfSamplesInFrame = new int[samples.size()];
+        for (int i = 0; i < numberOfSamplesInFrame.length; i++) {
+            numberOfSamplesInFrame[i] = samples.get(i);
+        }
+        frameSize = 2 + 2 + 3 * adsSamples + (isAccelerometerEnabled ? 6 : 0) + (isLoffEnabled ? 1 : 0) + 1;
+    }
+
+    @Override
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    @Override
+    public int[] getNumberOfSamplesInFrame() {
+        return numberOfSamplesInFrame;
+    }
+
+    @Override
+    public int getNumberOfAccelerometerSignals() {
+        return isAccelerometerEnabled ? 3 : 0;
+    }
+
+    @Override
+    public int encodeFrame(int frameCounter, int[] samples, byte[] dest, int offset) {
+        int index = offset;
+        dest[index++] = FrameDecoderCh2V1.START_FRAME_MARKER;
+        dest[index++] = FrameDecoderCh2V1.START_FRAME_MARKER;
+        dest[index++] = (byte) (frameCounter & 0xFF);
+        dest[index++] = 0;
+        for (int i = 0; i < numberOfAdsSamples; i++) {
+            int value = samples[i];
+            dest[index++] = (byte) value;
+            dest[index++] = (byte) (value >> 8);
+            dest[index++] = (byte) (value >> 16);
+        }
+        if (isAccelerometerEnabled) {
+            for (int i = numberOfAdsSamples; i < numberOfAdsSamples + 3; i++) {
+                dest[index++] = (byte) samples[i];
+                dest[index++] = (byte) (samples[i] >> 8);
+            }
+        }
+        if (isLoffEnabled) {
+            dest[index++] = 0;
+        }
+        dest[index++] = FrameDecoderCh2V1.STOP_FRAME_MARKER;
+        return index - offset;
+    }
+}
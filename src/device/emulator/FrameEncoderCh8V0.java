@@ -0,0 +1,69 @@
+package device.emulator;
+
+import device.ads8ch_v0.FrameDecoderCh8V0;
+import device.general.AdsConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Frames decoded by FrameDecoderCh8V0: start marker, numberOfBytesInDataFormat bytes
+ * for every sample (ads channels and accelerometer), 2 bytes device specific information.
+ * There is no frame counter in this format so lost frames can not be detected by the decoder
+ */
+class FrameEncoderCh8V0 implements FrameEncoder {
+    private final int frameSize;
+    private final int[] numberOfSamplesInFrame;
+    private final int numberOfBytesInDataFormat;
+    private final int numberOfAccelerometerSignals;
+
+    FrameEncoderCh8V0(AdsConfiguration adsConfiguration) {
+        List<Integer> samples = new ArrayList<Integer>();
+        for (int i = 0; i < adsConfiguration.getNumberOfAdsChannels(); i++) {
+            if (adsConfiguration.isChannelEnabled(i)) {
+                samples.add(adsConfiguration.getMaxDivider().getValue() / adsConfiguration.getChannelDivider(i).getValue());
+            }
+        }
+        numberOfAccelerometerSignals = adsConfiguration.isAccelerometerEnabled() ? 3 : 0;
+        for (int i = 0; i < numberOfAccelerometerSignals; i++) {
+            samples.add(adsConfiguration.getMaxDivider().getValue() / adsConfiguration.getAccelerometerDivider().getValue());
+        }
+        numberOfSamplesInFrame = new int[samples.size()];
+        for (int i = 0; i < numberOfSamplesInFrame.length; i++) {
+            numberOfSamplesInFrame[i] = samples.get(i);
+        }
+        numberOfBytesInDataFormat = adsConfiguration.getNumberOfBytesInDataFormat();
+        frameSize = 1 + adsConfiguration.getTotalNumberOfDataSamplesInEachDataRecord() * numberOfBytesInDataFormat + 2;
+    }
+
+    @Override
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    @Override
+    public int[] getNumberOfSamplesInFrame() {
+        return numberOfSamplesInFrame;
+    }
+
+    @Override
+    public int getNumberOfAccelerometerSignals() {
+        return numberOfAccelerometerSignals;
+    }
+
+    @Override
+    public int encodeFrame(int frameCounter, int[] samples, byte[] dest, int offset) {
+        int index = offset;
+        dest[index++] = (byte) FrameDecoderCh8V0.START_FRAME_MARKER;
+        int end = offset + frameSize - 2;
+        for (int i = 0; index < end; i++) {
+            int value = i < samples.length ? samples[i] : 0;
+            for (int b = 0; b < numberOfBytesInDataFormat; b++) {
+                dest[index++] = (byte) (value >> (8 * b));
+            }
+        }
+        dest[index++] = 0; // device specific information
+        dest[index++] = 0;
+        return index - offset;
+    }
+}
@@ -0,0 +1,12 @@
+package device.emulator;
+
+/**
+ * Source of the samples the emulated device sends
+ */
+interface SignalSource {
+    /**
+     * Fill samples of the next frame: samples of every signal one after another
+     * (in the order of FrameEncoder.getNumberOfSamplesInFrame())
+     */
+    public void nextFrame(int[] samples);
+}
@@ -0,0 +1,47 @@
+package device.emulator;
+
+import java.util.Random;
+
+/**
+ * Ads channels: sine waves (every channel has its own frequency) with some noise.
+ * Accelerometer: slow positive oscillations (accelerometer bytes are unsigned)
+ */
+class SyntheticSignalSource implements SignalSource {
+    private static final int ADS_AMPLITUDE = 100000;
+    private static final int ADS_NOISE = 1000;
+    private static final int ACCELEROMETER_MEAN = 3000;
+    private static final int ACCELEROMETER_AMPLITUDE = 1000;
+
+    private final int[] numberOfSamplesInFrame;
+    private final int numberOfAccelerometerSignals;
+    private final double framePeriod; // sec
+    private final Random random = new Random(1);
+    private long frameNumber;
+
+    SyntheticSignalSource(FrameEncoder frameEncoder, double framePeriod) {
+        numberOfSamplesInFrame = frameEncoder.getNumberOfSamplesInFrame();
+        numberOfAccelerometerSignals = frameEncoder.getNumberOfAccelerometerSignals();
+        this.framePeriod = framePeriod;
+    }
+
+    @Override
+    public void nextFrame(int[] samples) {
+        int index = 0;
+        int numberOfAdsSignals = numberOfSamplesInFrame.length - numberOfAccelerometerSignals;
+        for (int signal = 0; signal < numberOfSamplesInFrame.length; signal++) {
+            int n = numberOfSamplesInFrame[signal];
+            for (int i = 0; i < n; i++) {
+                double time = (frameNumber + (double) i / n) * framePeriod;
+                if (signal < numberOfAdsSignals) {
+                    double frequency = signal + 1; // Hz
+                    samples[index++] = (int) (ADS_AMPLITUDE * Math.sin(2 * Math.PI * frequency * time))
+                            + random.nextInt(2 * ADS_NOISE + 1) - ADS_NOISE;
+                } else {
+                    double frequency = 0.1 * (signal - numberOfAdsSignals + 1);
+                    samples[index++] = ACCELEROMETER_MEAN + (int) (ACCELEROMETER_AMPLITUDE * Math.sin(2 * Math.PI * frequency * time));
+                }
+            }
+        }
+        frameNumber++;
+    }
+}
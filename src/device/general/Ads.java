@@ -15,8 +15,10 @@ public abstract class Ads implements BdfProvider {
     private static final Log log = LogFactory.getLog(Ads.class);
     private List<BdfListener> bdfListeners = new ArrayList<BdfListener>();
     protected ComPort comPort;
-    protected boolean isRecording;
+    protected volatile boolean isRecording;
     protected AdsConfigurator adsConfigurator;
+    private BdfRecordPool recordPool;
+    private int serialReaderBufferSize; // if > 0 com port is read in the dedicated thread
 
 
     public abstract void setAdsConfigurator (AdsConfiguration adsConfiguration);
@@ -36,6 +38,9 @@ public abstract class Ads implements BdfProvider {
             });
             comPort = new ComPort(adsConfiguration.getComPortName(), adsConfiguration.getComPortSpeed());
             comPort.setComPortListener(frameDecoder);
+            if (serialReaderBufferSize > 0) {
+                comPort.startReaderThread(serialReaderBufferSize);
+            }
             comPort.writeToPort(adsConfigurator.writeAdsConfiguration());
             isRecording = true;
         } catch (SerialPortException  e) {
@@ -61,6 +66,25 @@ public abstract class Ads implements BdfProvider {
     }
 
 
+    /**
+     * @param bufferSize if > 0 com port will be read in the dedicated thread to the buffer of the given size
+     *                   (see ComPort.startReaderThread) otherwise in the com port event thread
+     */
+    public void setSerialReaderBufferSize(int bufferSize) {
+        serialReaderBufferSize = bufferSize;
+    }
+
+    /**
+     * @return number of bytes lost because the com port reader buffer was full
+     */
+    public long getSerialOverrunBytesCount() {
+        return comPort == null ? 0 : comPort.getOverrunBytesCount();
+    }
+
+    public long getSerialOverrunsCount() {
+        return comPort == null ? 0 : comPort.getOverrunsCount();
+    }
+
     @Override
     public void addBdfDataListener(BdfListener bdfBdfListener) {
         bdfListeners.add(bdfBdfListener);
@@ -71,10 +95,16 @@ public abstract class Ads implements BdfProvider {
         bdfListeners.remove(bdfListener);
     }
 
-    private void notifyAdsDataListeners(byte[] bdfDataRecord) {
-        for (BdfListener bdfListener : bdfListeners) {
-            bdfListener.onDataRecordReceived(bdfDataRecord);
+    /**
+     * Frame decoders reuse their frame arrays so the frame is copied to the pooled record
+     */
+    protected void notifyAdsDataListeners(byte[] bdfDataRecord) {
+        if (recordPool == null || recordPool.getRecordSize() != bdfDataRecord.length) {
+            recordPool = new BdfRecordPool(bdfDataRecord.length);
         }
+        BdfRecord record = recordPool.acquire();
+        System.arraycopy(bdfDataRecord, 0, record.getData(), 0, bdfDataRecord.length);
+        BdfRecordPool.notifyListeners(bdfListeners, record);
     }
 
 
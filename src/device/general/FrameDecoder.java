@@ -17,6 +17,9 @@ public abstract class FrameDecoder implements ComPortListener {
     public void removeFrameListener(FrameListener frameListener) {
         listeners.remove(frameListener);
     }
+    /**
+     * Decoders may reuse the frame array, listeners that keep the frame must copy it
+     */
     protected void notifyFrameListeners(byte[] frame) {
         for (FrameListener listener : listeners) {
             listener.onFrameReceived(frame);
@@ -0,0 +1,232 @@
+package dreamrec;
+
+import bdf.BdfHeaderData;
+import bdf.BdfHeaderReader;
+import bdf.BdfReader;
+import data.DataSeries;
+import filters.streaming.FilterPipeline;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import properties.ApplicationProperties;
+import rem.saccade.Saccade;
+import rem.saccade.SaccadeGroupDetector;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless offline analysis of all bdf files in the directory.
+ * Every file is read to RemDataStore (or its channels cache) and saccade groups are detected
+ * by SaccadeGroupDetector (with the same parameters as in GUI).
+ * Files are processed in parallel on the fixed thread pool and the results of every file
+ * are written to "filename.saccades.csv" or "filename.saccades.json".
+ * <p>
+ * Usage: BatchRemDetector bdf_directory [output_directory] [csv|json] [number_of_threads]
+ */
+public class BatchRemDetector {
+    private static final Log log = LogFactory.getLog(BatchRemDetector.class);
+    private static final double EOG_CUT_OFF_INTERVAL = 10; // sec. to remove steady component (the same as in Presenter)
+
+    public enum OutputFormat {
+        CSV, JSON
+    }
+
+    private ServiceLocator serviceLocator;
+    private File outputDirectory;
+    private OutputFormat outputFormat;
+    private int numberOfThreads;
+
+    /**
+     * @param outputDirectory if null results are written next to the bdf files
+     * @param numberOfThreads if <= 0 - the number of processors is used
+     */
+    public BatchRemDetector(ServiceLocator serviceLocator, File outputDirectory, OutputFormat outputFormat, int numberOfThreads) {
+        this.serviceLocator = serviceLocator;
+        this.outputDirectory = outputDirectory;
+        this.outputFormat = outputFormat;
+        if (numberOfThreads <= 0) {
+            numberOfThreads = Runtime.getRuntime().availableProcessors();
+        }
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * @return number of files that could not be processed
+     */
+    public int process(File directory) throws ApplicationException {
+        File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.isFile() && file.getName().toLowerCase().endsWith(".bdf");
+            }
+        });
+        if (files == null) {
+            throw new ApplicationException("Directory: " + directory + " is not valid");
+        }
+        Arrays.sort(files);
+        if (outputDirectory != null && !outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            throw new ApplicationException("Output directory: " + outputDirectory + " can not be created");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(numberOfThreads, files.length)));
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (final File file : files) {
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    processFile(file);
+                    return null;
+                }
+            }));
+        }
+        executor.shutdown();
+
+        int numberOfFailed = 0;
+        for (int i = 0; i < files.length; i++) {
+            try {
+                futures.get(i).get();
+                log.info("Processed: " + files[i].getName());
+            } catch (ExecutionException e) {
+                numberOfFailed++;
+                log.error("File " + files[i].getName() + " was not processed", e.getCause());
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                throw new ApplicationException("Batch processing was interrupted", e);
+            }
+        }
+        return numberOfFailed;
+    }
+
+    private void processFile(File file) throws ApplicationException, InterruptedException, IOException {
+        BdfHeaderData bdfHeaderData = BdfHeaderReader.readBdfHeader(file);
+        BdfReader bdfReader = new BdfReader(file);
+        RemChannels remChannels = new RemChannels(bdfHeaderData.getSignalsLabels());
+        RemDataStore dataStore = new RemDataStore(bdfReader, remChannels);
+        dataStore.configure(serviceLocator.getRemConfigurator());
+        dataStore.setChannelsMask(remChannels.getRemActiveChannels());
+        dataStore.setStartTime(bdfHeaderData.getStartTime());
+        if (serviceLocator.isCompressedStorage()) {
+            dataStore.setCompressedStorage();
+        } else {
+            dataStore.setChunkedStorage(serviceLocator.isOffHeapStorage(), serviceLocator.getMaxChunksInMemory());
+        }
+        // files are already processed in parallel
+        dataStore.setNumberOfProcessingThreads(1);
+        try {
+            if (dataStore.readCache(file)) {
+                log.info("Channels are read from the cache: " + file.getName());
+                bdfReader.stopReading();
+            } else {
+                bdfReader.startReading(); // not in EDT so the file is read in this thread
+            }
+            dataStore.awaitProcessing();
+            if (dataStore.isProcessingFailed()) {
+                throw new ApplicationException("Data records processing failed: " + file.getName());
+            }
+
+            DataSeries eog = new FilterPipeline(dataStore.getEog1Data()).hiPass(EOG_CUT_OFF_INTERVAL).build();
+            SaccadeGroupDetector saccadeDetector = new SaccadeGroupDetector(eog);
+            saccadeDetector.update();
+
+            File resultFile = getResultFile(file);
+            try (PrintWriter writer = new PrintWriter(resultFile, "UTF-8")) {
+                if (outputFormat == OutputFormat.JSON) {
+                    writeJson(writer, file, dataStore.getStartTime(), saccadeDetector);
+                } else {
+                    writeCsv(writer, saccadeDetector);
+                }
+                if (writer.checkError()) {
+                    throw new IOException("Error while writing file " + resultFile);
+                }
+            }
+        } finally {
+            dataStore.close();
+        }
+    }
+
+    private File getResultFile(File bdfFile) {
+        File directory = outputDirectory != null ? outputDirectory : bdfFile.getParentFile();
+        String extension = outputFormat == OutputFormat.JSON ? ".json" : ".csv";
+        return new File(directory, bdfFile.getName() + ".saccades" + extension);
+    }
+
+    private void writeCsv(PrintWriter writer, SaccadeGroupDetector saccadeDetector) {
+        writer.println("group,start_time_ms,end_time_ms,duration_ms,value");
+        List<Saccade> saccades = saccadeDetector.getSaccadeList();
+        int saccadeIndex = 0;
+        for (int group = 0; group < saccadeDetector.groupsCount(); group++) {
+            for (int i = 0; i < saccadeDetector.saccadesCountInGroup(group); i++) {
+                Saccade saccade = saccades.get(saccadeIndex++);
+                writer.println(group + "," + saccade.getStartTime() + "," + saccade.getEndTime()
+                        + "," + saccade.getDuration() + "," + saccade.getValue());
+            }
+        }
+    }
+
+    private void writeJson(PrintWriter writer, File file, long startTime, SaccadeGroupDetector saccadeDetector) {
+        writer.println("{");
+        writer.println("  \"file\": \"" + escapeJson(file.getName()) + "\",");
+        writer.println("  \"start_time_ms\": " + startTime + ",");
+        writer.println("  \"groups\": [");
+        List<Saccade> saccades = saccadeDetector.getSaccadeList();
+        int saccadeIndex = 0;
+        for (int group = 0; group < saccadeDetector.groupsCount(); group++) {
+            writer.println("    {");
+            writer.println("      \"start_time_ms\": " + saccadeDetector.getGroupStartTime(group) + ",");
+            writer.println("      \"end_time_ms\": " + saccadeDetector.getGroupEndTime(group) + ",");
+            writer.println("      \"saccades\": [");
+            int count = saccadeDetector.saccadesCountInGroup(group);
+            for (int i = 0; i < count; i++) {
+                Saccade saccade = saccades.get(saccadeIndex++);
+                writer.print("        {\"start_time_ms\": " + saccade.getStartTime()
+                        + ", \"duration_ms\": " + saccade.getDuration()
+                        + ", \"value\": " + saccade.getValue() + "}");
+                writer.println(i < count - 1 ? "," : "");
+            }
+            writer.println("      ]");
+            writer.println(group < saccadeDetector.groupsCount() - 1 ? "    }," : "    }");
+        }
+        writer.println("  ]");
+        writer.println("}");
+    }
+
+    private static String escapeJson(String string) {
+        return string.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 1) {
+            System.out.println("Usage: BatchRemDetector bdf_directory [output_directory] [csv|json] [number_of_threads]");
+            System.exit(1);
+        }
+        try {
+            File outputDirectory = args.length > 1 ? new File(args[1]) : null;
+            OutputFormat outputFormat = args.length > 2 ? OutputFormat.valueOf(args[2].toUpperCase()) : OutputFormat.CSV;
+            int numberOfThreads = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+            ApplicationProperties applicationProperties = new ApplicationProperties(new File("application.properties"));
+            ServiceLocator serviceLocator = new PropertiesServiceLocator(applicationProperties);
+            BatchRemDetector batchRemDetector = new BatchRemDetector(serviceLocator, outputDirectory, outputFormat, numberOfThreads);
+            int numberOfFailed = batchRemDetector.process(new File(args[0]));
+            if (numberOfFailed > 0) {
+                System.out.println(numberOfFailed + " files were not processed");
+                System.exit(2);
+            }
+        } catch (ApplicationException | IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+}
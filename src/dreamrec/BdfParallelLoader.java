@@ -0,0 +1,162 @@
+package dreamrec;
+
+import bdf.BdfHeaderData;
+import bdf.BdfHeaderReader;
+import bdf.BdfParser;
+import bdf.SignalConfig;
+import data.DataList;
+import data.ScalingImpl;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Loads the whole bdf file to channel arrays for offline analysis.
+ * Data records have fixed size so the data section is split to independent
+ * ranges of records (chunks). Chunks are memory mapped and decoded on the fork-join pool
+ * straight into preallocated per-signal arrays at the offsets of their records.
+ */
+public class BdfParallelLoader {
+    private static final Log log = LogFactory.getLog(BdfParallelLoader.class);
+    private static final int CHUNK_SIZE = 4 * 1024 * 1024; // bytes of data records decoded by one task
+
+    private final File file;
+    private final BdfHeaderData bdfHeaderData;
+    private final int[] numberOfSamplesInEachDataRecord;
+    private final int dataRecordSize;
+    private final long numberOfBytesInHeader;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public BdfParallelLoader(File file) throws ApplicationException {
+        this.file = file;
+        bdfHeaderData = BdfHeaderReader.readBdfHeader(file);
+        SignalConfig[] signalConfigs = bdfHeaderData.getSignalConfigs();
+        numberOfSamplesInEachDataRecord = new int[signalConfigs.length];
+        int numberOfSamples = 0;
+        for (int i = 0; i < signalConfigs.length; i++) {
+            numberOfSamplesInEachDataRecord[i] = signalConfigs[i].getNumberOfSamplesInEachDataRecord();
+            numberOfSamples += numberOfSamplesInEachDataRecord[i];
+        }
+        dataRecordSize = numberOfSamples * bdfHeaderData.getNumberOfBytesInDataFormat();
+        numberOfBytesInHeader = 256 + 256 * bdfHeaderData.getNumberOfSignals();
+    }
+
+    /**
+     * @param parallelism number of threads. If <= 0 - number of processors
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        this.parallelism = parallelism;
+    }
+
+    public BdfHeaderData getBdfConfig() {
+        return bdfHeaderData;
+    }
+
+    /**
+     * @return data of every signal (with the same scaling as DataStore channels)
+     */
+    public DataList[] load() throws ApplicationException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            FileChannel fileChannel = randomAccessFile.getChannel();
+            // number of data records in header could be -1 (unknown) or wrong if recording was interrupted
+            long numberOfDataRecords = Math.max(0, (fileChannel.size() - numberOfBytesInHeader) / dataRecordSize);
+            int[][] signalsData = new int[numberOfSamplesInEachDataRecord.length][];
+            for (int i = 0; i < signalsData.length; i++) {
+                long size = numberOfDataRecords * numberOfSamplesInEachDataRecord[i];
+                if (size > Integer.MAX_VALUE) {
+                    throw new ApplicationException("File " + file.getName() + " is too big to be loaded to memory");
+                }
+                signalsData[i] = new int[(int) size];
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                int recordsInChunk = Math.max(1, CHUNK_SIZE / dataRecordSize);
+                pool.invoke(new DecodeTask(fileChannel, signalsData, 0, (int) numberOfDataRecords, recordsInChunk));
+            } finally {
+                pool.shutdown();
+            }
+
+            DataList[] channels = new DataList[signalsData.length];
+            for (int i = 0; i < channels.length; i++) {
+                double frequency = numberOfSamplesInEachDataRecord[i] / bdfHeaderData.getDurationOfDataRecord();
+                SignalConfig signalConfig = bdfHeaderData.getSignalConfigs()[i];
+                ScalingImpl scaling = new ScalingImpl();
+                scaling.setSamplingInterval(1 / frequency);
+                scaling.setTimeSeries(true);
+                scaling.setStart(bdfHeaderData.getStartTime());
+                scaling.setDataGain(signalConfig.getCalibration().getGain());
+                scaling.setDataOffset(signalConfig.getCalibration().getOffset());
+                scaling.setDataDimension(signalConfig.getCalibration().getPhysicalDimension());
+                channels[i] = new DataList(signalsData[i]);
+                channels[i].setScaling(scaling);
+            }
+            return channels;
+        } catch (IOException | UncheckedIOException e) {
+            log.error(e);
+            throw new ApplicationException("Error while reading from file " + file.getName(), e);
+        }
+    }
+
+    /**
+     * Decodes the range of data records [fromRecord, toRecord). Splits itself
+     * in halves until the range is not bigger than one chunk
+     */
+    private class DecodeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel fileChannel;
+        private final int[][] signalsData;
+        private final int fromRecord;
+        private final int toRecord;
+        private final int recordsInChunk;
+
+        DecodeTask(FileChannel fileChannel, int[][] signalsData, int fromRecord, int toRecord, int recordsInChunk) {
+            this.fileChannel = fileChannel;
+            this.signalsData = signalsData;
+            this.fromRecord = fromRecord;
+            this.toRecord = toRecord;
+            this.recordsInChunk = recordsInChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRecord - fromRecord > recordsInChunk) {
+                int middle = (fromRecord + toRecord) >>> 1;
+                invokeAll(new DecodeTask(fileChannel, signalsData, fromRecord, middle, recordsInChunk),
+                        new DecodeTask(fileChannel, signalsData, middle, toRecord, recordsInChunk));
+                return;
+            }
+            if (toRecord == fromRecord) {
+                return;
+            }
+            MappedByteBuffer chunk;
+            try {
+                long position = numberOfBytesInHeader + (long) fromRecord * dataRecordSize;
+                chunk = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, (long) (toRecord - fromRecord) * dataRecordSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            BdfParser bdfParser = new BdfParser(bdfHeaderData.getNumberOfBytesInDataFormat(), numberOfSamplesInEachDataRecord);
+            byte[] dataRecord = new byte[dataRecordSize];
+            for (int recordNumber = fromRecord; recordNumber < toRecord; recordNumber++) {
+                chunk.get(dataRecord);
+                for (int signalNumber = 0; signalNumber < signalsData.length; signalNumber++) {
+                    int offset = recordNumber * numberOfSamplesInEachDataRecord[signalNumber];
+                    bdfParser.parseDataRecordSignal(dataRecord, signalNumber, signalsData[signalNumber], offset);
+                }
+            }
+        }
+    }
+}
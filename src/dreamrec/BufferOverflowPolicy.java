@@ -0,0 +1,10 @@
+package dreamrec;
+
+/**
+ * What to do with a new data record when the DataStore buffer is full
+ */
+public enum BufferOverflowPolicy {
+    BLOCK,       // wait until the buffer has free space
+    DROP_OLDEST, // the oldest buffered record is lost
+    SPILL        // records are buffered in a temporary file until the buffer has free space
+}
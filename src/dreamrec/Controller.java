@@ -25,6 +25,7 @@ public class  Controller  implements InputEventHandler {
     private BdfProvider bdfProvider;
     private BdfHeaderData bdfHeaderData;
     private BdfWriter bdfWriter;
+    private Object currentDataStore;
     private boolean isRemMode;
 
     public Controller(ServiceLocator serviceLocator) {
@@ -50,11 +51,29 @@ public class  Controller  implements InputEventHandler {
         }
     }
 
+    /**
+     * Close the replaced data store (so its spill files are deleted) and notify listeners
+     */
+    private void setDataStore(Object dataStore) {
+        if (currentDataStore instanceof RemDataStore) {
+            ((RemDataStore) currentDataStore).close();
+        } else if (currentDataStore instanceof DataStore) {
+            ((DataStore) currentDataStore).close();
+        }
+        currentDataStore = dataStore;
+        fireDataStoreUpdated(dataStore);
+    }
+
     @Override
     public void readFromFile(BdfHeaderData bdfHeaderDataNew) throws ApplicationException {
         stopRecording();
         File file = bdfHeaderDataNew.getFile();
-        if (file.isFile()) { // file
+        if (file.isFile() && BdfzConverter.isBdfz(file)) { // compressed file
+            BdfzReader bdfzReader = new BdfzReader(file);
+            bdfProvider = bdfzReader;
+            bdfHeaderData = bdfzReader.getBdfConfig();
+        }
+        else if (file.isFile()) { // file
             BdfReader bdfReader = new BdfReader(file);
             bdfProvider = bdfReader;
             bdfHeaderData = bdfReader.getBdfConfig();
@@ -65,14 +84,29 @@ public class  Controller  implements InputEventHandler {
         bdfHeaderData.setPatientIdentification(bdfHeaderDataNew.getPatientIdentification());
         bdfHeaderData.setRecordingIdentification(bdfHeaderDataNew.getRecordingIdentification());
         bdfHeaderData.setSignalsLabels(bdfHeaderDataNew.getSignalsLabels());
+        long lastModified = file.lastModified();
         BdfHeaderWriter.writeBdfHeader(bdfHeaderDataNew, file);
+        DataStoreCache.updateLastModified(file, lastModified);
+        boolean isReadFromCache = false;
         if (isRemMode) {
             RemChannels remChannels = new RemChannels(bdfHeaderData.getSignalsLabels());
+            RemConfigurator remConfigurator = serviceLocator.getRemConfigurator();
+            if (remConfigurator != null && bdfProvider instanceof BdfReader) {
+                // signals are decimated to REM frequencies while reading
+                ((BdfReader) bdfProvider).setSignalsFrequencies(remConfigurator.getSignalsFrequencies(bdfHeaderData, remChannels));
+            }
             RemDataStore dataStore  = new RemDataStore(bdfProvider, remChannels);
-            dataStore.configure(serviceLocator.getRemConfigurator());
+            dataStore.configure(remConfigurator);
             dataStore.setChannelsMask(remChannels.getRemActiveChannels());
             dataStore.setStartTime(bdfHeaderData.getStartTime());
-            fireDataStoreUpdated(dataStore);
+            if (serviceLocator.isCompressedStorage()) {
+                dataStore.setCompressedStorage();
+            } else {
+                dataStore.setChunkedStorage(serviceLocator.isOffHeapStorage(), serviceLocator.getMaxChunksInMemory());
+            }
+            dataStore.setNumberOfProcessingThreads(serviceLocator.getNumberOfProcessingThreads());
+            isReadFromCache = dataStore.readCache(file);
+            setDataStore(dataStore);
 
         } else {
            /* DataStore dataStore = new DataStore(bdfProvider);
@@ -81,7 +115,11 @@ public class  Controller  implements InputEventHandler {
             fireDataStoreUpdated(dataStore);*/
         }
 
-        bdfProvider.startReading();
+        if (isReadFromCache) {
+            bdfProvider.stopReading();
+        } else {
+            bdfProvider.startReading();
+        }
     }
 
     @Override
@@ -95,19 +133,34 @@ public class  Controller  implements InputEventHandler {
         bdfHeaderData.setRecordingIdentification(recording);
         bdfWriter = new BdfWriter(bdfHeaderData);
         bdfWriter.setFrequencyAutoAdjustment(false);
+        bdfWriter.setAsyncWriting(serviceLocator.getWriteBufferSize(), serviceLocator.getWriteFlushPeriodMs());
         bdfProvider.addBdfDataListener(bdfWriter);
         if (isRemMode) {
             RemChannels remChannels = new RemChannels(bdfHeaderData.getSignalsLabels());
             RemDataStore dataStore  = new RemDataStore(bdfProvider, remChannels);
             dataStore.configure(serviceLocator.getRemConfigurator());
             dataStore.setChannelsMask(remChannels.getRemActiveChannels());
-            fireDataStoreUpdated(dataStore);
+            if (serviceLocator.isCompressedStorage()) {
+                dataStore.setCompressedStorage();
+            } else {
+                dataStore.setChunkedStorage(serviceLocator.isOffHeapStorage(), serviceLocator.getMaxChunksInMemory());
+            }
+            dataStore.setNumberOfProcessingThreads(serviceLocator.getNumberOfProcessingThreads());
+            dataStore.setBufferOverflowPolicy(serviceLocator.getBufferOverflowPolicy());
+            setDataStore(dataStore);
 
         } else {
             DataStore dataStore = new DataStore(bdfProvider);
             dataStore.setStartTime(bdfHeaderData.getStartTime());
-
-            fireDataStoreUpdated(dataStore);
+            if (serviceLocator.isCompressedStorage()) {
+                dataStore.setCompressedStorage();
+            } else {
+                dataStore.setChunkedStorage(serviceLocator.isOffHeapStorage(), serviceLocator.getMaxChunksInMemory());
+            }
+            dataStore.setNumberOfProcessingThreads(serviceLocator.getNumberOfProcessingThreads());
+            dataStore.setBufferOverflowPolicy(serviceLocator.getBufferOverflowPolicy());
+
+            setDataStore(dataStore);
         }
         bdfProvider.startReading();
     }
@@ -133,7 +186,7 @@ public class  Controller  implements InputEventHandler {
 
     @Override
     public String[] getFileExtensions() {
-        return BdfHeaderData.FILE_EXTENSIONS;
+        return BdfHeaderData.READABLE_FILE_EXTENSIONS;
     }
 
     @Override
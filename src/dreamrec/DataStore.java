@@ -2,7 +2,11 @@ package dreamrec;
 
 import bdf.*;
 import data.DataList;
+import data.DataSeries;
+import data.Scaling;
 import data.ScalingImpl;
+import filters.streaming.StreamingFilter;
+import filters.streaming.StreamingFilterGroup;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import prefilters.PreFilter;
@@ -11,32 +15,68 @@ import prefilters.PreFilterAdapter;
 import javax.swing.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.nio.IntBuffer;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 public class DataStore implements BdfListener {
     private static final Log log = LogFactory.getLog(DataStore.class);
 
-    //private ConcurrentLinkedQueue<byte[]> dataRecordsBuffer = new ConcurrentLinkedQueue<byte[]>();
-    private LinkedBlockingQueue<byte[]> dataRecordsBuffer;
+    private RecordRingBuffer dataRecordsBuffer;
+    private byte[] dataRecord; // consumer side copy of the buffered data record
+    private int dataRecordSize;
+    private long reportedDroppedCount;
 
     private int BUFFER_CAPACITY_SECONDS = 60 * 30; // to protect from OutOfMemoryError
     private int bufferSize;
     private ArrayList<DataStoreListener> updateListeners = new ArrayList<DataStoreListener>();
+    private StreamingFilterGroup streamingFilters = new StreamingFilterGroup();
 
     protected DataList[] channelsList;
     private PreFilter[] preFiltersList;
     private boolean[] channelsMask;
     private Timer updateTimer;
     private int UPDATE_DELAY = 250;
+    private int PROCESSING_DELAY = 20; // pause of the processing thread when there are no buffered records
+    private int PUBLISHING_PERIOD = 64; // channels sizes are published at least every PUBLISHING_PERIOD records
+
+    // records are parsed, prefiltered and appended in the separate processing thread (not in EDT)
+    private Thread processingThread;
+    private volatile boolean isProcessingFinished = false;
+    // immutable snapshot of channels sizes. GUI sees channels data only up to these sizes
+    private volatile int[] publishedSizes;
+    // channels sizes already announced to the listeners (used only in EDT)
+    private int[] notifiedSizes;
+    private DataSeries[] publishedChannels;
+
+    // parallel mode: batches of records are processed by signals in the thread pool
+    private int BATCH_SIZE = 32;
+    private int numberOfProcessingThreads = 1;
+    private ExecutorService executor;
+    private byte[][] recordsBatch;
+    private int recordsBatchSize;
+    private List<Callable<Void>> signalTasks;
 
     private BdfParser bdfParser;
+    private int[] signalBuffer; // reusable buffer to decode signals of every data record
     private BdfConfig bdfConfig;
     private volatile boolean isReadingStopped = false;
+    private volatile boolean isProcessingFailed = false;
     private volatile int numberOfDataRecords = -1;
+    private int numberOfProcessedRecords; // used only in the processing thread
+
+    private File cachedBdfFile;
+    private boolean isReadFromCache = false;
 
     public DataStore(BdfProvider bdfProvider) {
         bdfProvider.addBdfDataListener(this);
@@ -50,9 +90,14 @@ public class DataStore implements BdfListener {
 
         bufferSize = (int) (BUFFER_CAPACITY_SECONDS / bdfConfig.getDurationOfDataRecord());
         bufferSize = bufferSize / numberOfSignals;
-        dataRecordsBuffer = new LinkedBlockingQueue<byte[]>(bufferSize);
+        for (int i = 0; i < numberOfSignals; i++) {
+            dataRecordSize += numberOfSamplesInEachDataRecords[i] * bdfConfig.getNumberOfBytesInDataFormat();
+        }
+        dataRecord = new byte[dataRecordSize];
+        dataRecordsBuffer = new RecordRingBuffer(bufferSize, dataRecordSize, BufferOverflowPolicy.BLOCK);
 
         bdfParser = new BdfParser(bdfConfig.getNumberOfBytesInDataFormat(), numberOfSamplesInEachDataRecords);
+        signalBuffer = new int[bdfParser.getMaxSignalNumberOfSamples()];
 
         preFiltersList = new PreFilter[numberOfSignals];
         channelsMask = new boolean[numberOfSignals];
@@ -64,6 +109,7 @@ public class DataStore implements BdfListener {
         for (int i = 0; i < numberOfSignals; i++) {
             double frequency = numberOfSamplesInEachDataRecords[i] / bdfConfig.getDurationOfDataRecord();
             channelsList[i] = new DataList();
+            channelsList[i].setChunkedStorage(false);
             ScalingImpl scaling = new ScalingImpl();
             scaling.setSamplingInterval(1 / frequency);
             scaling.setTimeSeries(true);
@@ -73,13 +119,23 @@ public class DataStore implements BdfListener {
             channelsList[i].setScaling(scaling);
         }
 
+        publishedSizes = new int[numberOfSignals];
+        notifiedSizes = new int[numberOfSignals];
+        publishedChannels = new DataSeries[numberOfSignals];
+        for (int i = 0; i < numberOfSignals; i++) {
+            publishedChannels[i] = new PublishedChannel(i);
+        }
+
+        // timer only notifies listeners (repaints) about published data
         updateTimer = new Timer(UPDATE_DELAY, new ActionListener() {
             public void actionPerformed(ActionEvent evt) {
-                processBufferedData();
+                // flag is read before notification so the last published data are not lost
+                boolean isFinished = isProcessingFinished;
+                reportDroppedRecords();
 
                 fireDataUpdated();
 
-                if (isReadingStopped) {
+                if (isFinished) {
                     updateTimer.stop();
                 }
             }
@@ -112,6 +168,106 @@ public class DataStore implements BdfListener {
         }
     }
 
+    /**
+     * Must be called before data records are received.
+     *
+     * @param isOffHeap         if true channels data are stored in direct (off-heap) buffers
+     * @param maxChunksInMemory number of data chunks per channel kept in memory.
+     *                          Older chunks are spilled to disk. If negative - data are never spilled
+     */
+    public void setChunkedStorage(boolean isOffHeap, int maxChunksInMemory) {
+        for (DataList channel : channelsList) {
+            channel.setChunkedStorage(isOffHeap);
+            channel.setMaxChunksInMemory(maxChunksInMemory);
+        }
+    }
+
+    /**
+     * Must be called before data records are received.
+     * Channels data are stored in lossless compressed form (several times less memory)
+     */
+    public void setCompressedStorage() {
+        for (DataList channel : channelsList) {
+            channel.setCompressedStorage();
+        }
+    }
+
+    /**
+     * Must be called before data records are received.
+     * By default the data source is blocked when the buffer is full
+     */
+    public void setBufferOverflowPolicy(BufferOverflowPolicy overflowPolicy) {
+        dataRecordsBuffer = new RecordRingBuffer(bufferSize, dataRecordSize, overflowPolicy);
+    }
+
+    /**
+     * Must be called before data records are received.
+     * If numberOfThreads > 1 signals are decoded and prefiltered in parallel
+     * (every signal is processed by one task at a time, so the order of
+     * appended values does not change). If numberOfThreads <= 0 - the number of processors is used
+     */
+    public void setNumberOfProcessingThreads(int numberOfThreads) {
+        if (numberOfThreads <= 0) {
+            numberOfThreads = Runtime.getRuntime().availableProcessors();
+        }
+        numberOfProcessingThreads = numberOfThreads;
+    }
+
+    /**
+     * Wait until all records received before onStopReading() are processed
+     * (for headless usage when there is no GUI to follow data updates)
+     */
+    public void awaitProcessing() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            thread = processingThread;
+        }
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Stop processing and release the records buffer and channels storage (spill files).
+     * Already stored channels data stay readable
+     */
+    public void close() {
+        isReadingStopped = true;
+        dataRecordsBuffer.close();
+        for (DataList channel : channelsList) {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return true if processing of data records failed and was stopped
+     * (channels data are incomplete)
+     */
+    public boolean isProcessingFailed() {
+        return isProcessingFailed;
+    }
+
+    /**
+     * @return number of received data records waiting to be processed
+     */
+    public int getBufferDepth() {
+        return dataRecordsBuffer.getDepth();
+    }
+
+    /**
+     * @return number of data records lost because of buffer overflow
+     */
+    public long getDroppedRecordsCount() {
+        return dataRecordsBuffer.getDroppedCount();
+    }
+
+    /**
+     * @return number of data records that were temporarily spilled to disk because of buffer overflow
+     */
+    public long getSpilledRecordsCount() {
+        return dataRecordsBuffer.getSpilledCount();
+    }
+
     public int getNumberOfChannels() {
         int numberOfChannels = getNumberOfSignals();
         for(boolean isActive : channelsMask) {
@@ -123,13 +279,19 @@ public class DataStore implements BdfListener {
     }
 
 
-    public DataList getChannelData(int channelNumber) {
+    /**
+     * @return channel data published by the processing thread
+     */
+    public DataSeries getChannelData(int channelNumber) {
         int signalNumber = channelToSignal(channelNumber);
-        return channelsList[signalNumber];
+        return publishedChannels[signalNumber];
     }
 
-    public DataList getSignalData(int signalNumber) {
-        return channelsList[signalNumber];
+    /**
+     * @return signal data published by the processing thread
+     */
+    public DataSeries getSignalData(int signalNumber) {
+        return publishedChannels[signalNumber];
     }
 
 
@@ -153,18 +315,157 @@ public class DataStore implements BdfListener {
         });*/
     }
 
+    /**
+     * Enable channels caching for the given bdf file. Must be called after
+     * prefilters and channels mask are set and before channels data are requested.
+     * If a valid cache exists channels data are memory mapped from it and
+     * there is no need to read the file (BdfProvider should be just stopped)
+     *
+     * @return true if channels data were read from the cache
+     */
+    public boolean readCache(File bdfFile) {
+        cachedBdfFile = bdfFile;
+        IntBuffer[] cachedChannels = DataStoreCache.read(bdfFile, getCacheSignature());
+        if (cachedChannels == null || cachedChannels.length != getNumberOfSignals()) {
+            return false;
+        }
+        for (int i = 0; i < getNumberOfSignals(); i++) {
+            DataList channel = new DataList(cachedChannels[i]);
+            channel.setScaling(channelsList[i].getScaling());
+            channelsList[i] = channel;
+        }
+        isReadFromCache = true;
+        start();
+        return true;
+    }
+
+    /**
+     * Cache is written only if all data records of the file were processed.
+     * If reading was stopped before the end of file (or records were dropped) channels are incomplete
+     */
+    private void writeCache() {
+        if (cachedBdfFile == null || isReadFromCache) {
+            return;
+        }
+        int expectedNumberOfRecords = getSourceNumberOfDataRecords() / getNumberOfRecordsToJoin();
+        if (expectedNumberOfRecords > 0 && numberOfProcessedRecords == expectedNumberOfRecords) {
+            DataStoreCache.write(cachedBdfFile, getCacheSignature(), channelsList);
+        } else {
+            log.info("Channels cache is not written. Processed data records: " + numberOfProcessedRecords
+                    + " Expected: " + expectedNumberOfRecords);
+        }
+    }
+
+    /**
+     * Channels data depend on the records delivered by the BdfProvider (that could be decimated),
+     * the prefilters and channels mask so they are the part of the cache key
+     */
+    private String getCacheSignature() {
+        StringBuilder signature = new StringBuilder();
+        signature.append(bdfConfig.getDurationOfDataRecord()).append(";");
+        signature.append(getSourceNumberOfDataRecords()).append(";");
+        SignalConfig[] signalConfigs = bdfConfig.getSignalConfigs();
+        for (int i = 0; i < getNumberOfSignals(); i++) {
+            signature.append(signalConfigs[i].getNumberOfSamplesInEachDataRecord());
+            if (!channelsMask[i]) {
+                signature.append("-");
+            } else if (preFiltersList[i] != null) {
+                signature.append(preFiltersList[i].getClass().getSimpleName()).append(preFiltersList[i].getDivider());
+            } else {
+                signature.append("+");
+            }
+            signature.append(";");
+        }
+        return signature.toString();
+    }
+
+    /**
+     * Records of the BdfProvider could be joined from the records of the underlying
+     * provider (BdfRecordsJoiner). The number of records is known only from the header data
+     * of the underlying BdfReader (records it delivers could be already decimated)
+     *
+     * @return number of records in the source header data or -1 if unknown
+     */
+    private int getSourceNumberOfDataRecords() {
+        BdfConfig config = bdfConfig;
+        while (!(config instanceof BdfHeaderData) && config instanceof BdfConfigWrapper) {
+            config = ((BdfConfigWrapper) config).getWrappedConfig();
+        }
+        if (config instanceof BdfHeaderData) {
+            return ((BdfHeaderData) config).getNumberOfDataRecords();
+        }
+        return -1;
+    }
+
+    /**
+     * @return number of source records joined into one record of the BdfProvider
+     */
+    private int getNumberOfRecordsToJoin() {
+        int numberOfRecordsToJoin = 1;
+        BdfConfig config = bdfConfig;
+        while (!(config instanceof BdfHeaderData) && config instanceof BdfConfigWrapper) {
+            if (config instanceof JoinedBdfConfig) {
+                numberOfRecordsToJoin *= ((JoinedBdfConfig) config).getNumberOfRecordsToJoin();
+            }
+            config = ((BdfConfigWrapper) config).getWrappedConfig();
+        }
+        return numberOfRecordsToJoin;
+    }
+
     public void addListener(DataStoreListener dataStoreListener) {
         updateListeners.add(dataStoreListener);
     }
 
+    /**
+     * Streaming filter of the channels data. New data are pushed through it
+     * every time they are published, before the listeners are notified
+     */
+    public void addStreamingFilter(StreamingFilter streamingFilter) {
+        streamingFilters.add(streamingFilter);
+    }
+
+    /**
+     * Announce the channels ranges appended since the previous notification.
+     * If nothing was appended listeners are not notified
+     */
     private void fireDataUpdated() {
-        for (DataStoreListener listener : updateListeners) {
-            listener.onDataUpdate();
+        int[] sizes = publishedSizes;
+        boolean isUpdated = false;
+        int channelNumber = -1;
+        for (int signalNumber = 0; signalNumber < sizes.length; signalNumber++) {
+            if (!channelsMask[signalNumber]) {
+                continue;
+            }
+            channelNumber++;
+            if (sizes[signalNumber] > notifiedSizes[signalNumber]) {
+                for (DataStoreListener listener : updateListeners) {
+                    listener.onDataAppended(channelNumber, notifiedSizes[signalNumber], sizes[signalNumber]);
+                }
+                notifiedSizes[signalNumber] = sizes[signalNumber];
+                isUpdated = true;
+            }
+        }
+        if (isUpdated) {
+            streamingFilters.update();
+            for (DataStoreListener listener : updateListeners) {
+                listener.onDataUpdate();
+            }
         }
     }
 
 
-    private void start() {
+    private synchronized void start() {
+        if (processingThread != null) {
+            return;
+        }
+        processingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                processData();
+            }
+        }, "DataStore processing");
+        processingThread.setDaemon(true);
+        processingThread.start();
         updateTimer.start();
         if (getStartTime() <= 0) {
             long startTime = System.currentTimeMillis() - (long) bdfConfig.getDurationOfDataRecord()*1000; //1 second (1000 msec) duration of a data record
@@ -184,19 +485,18 @@ public class DataStore implements BdfListener {
 
     @Override
     public void onDataRecordReceived(byte[] dataRecord) {
+        if (isProcessingFailed) {
+            return;
+        }
         numberOfDataRecords++;
         if (numberOfDataRecords == 0) {
             start();
         }
 
-        if (SwingUtilities.isEventDispatchThread()) { // if data comes from gui thread we process it at once
-            processDataRecord(dataRecord);
-        } else {
-            try {
-                dataRecordsBuffer.put(dataRecord); // if data comes from non-gui thread we just buffer it
-            } catch (InterruptedException e) {
-                log.error(e);
-            }
+        try {
+            dataRecordsBuffer.put(dataRecord); // data are always processed in the processing thread
+        } catch (InterruptedException e) {
+            log.error(e);
         }
     }
 
@@ -206,25 +506,185 @@ public class DataStore implements BdfListener {
     }
 
 
+    /**
+     * Main loop of the processing thread
+     */
+    private void processData() {
+        int numberOfThreads = Math.min(numberOfProcessingThreads, getNumberOfChannels());
+        if (numberOfThreads > 1) {
+            createExecutor(numberOfThreads);
+        }
+        try {
+            while (true) {
+                // flag is read before processing so records buffered before stop are not lost
+                boolean isStopped = isReadingStopped;
+                processBufferedData();
+                if (isStopped) {
+                    break;
+                }
+                try {
+                    Thread.sleep(PROCESSING_DELAY);
+                } catch (InterruptedException e) {
+                    log.error(e);
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            // channels could have different lengths so processing can not be continued
+            log.error("Data records processing failed. Processing is stopped", e);
+            isProcessingFailed = true;
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+        dataRecordsBuffer.close();
+        if (!isProcessingFailed) {
+            writeCache();
+        }
+        isProcessingFinished = true;
+    }
+
     private void processBufferedData() {
-        while (dataRecordsBuffer.size() > 0) {
-            byte[] dataRecord = dataRecordsBuffer.poll();
+        if (executor != null) {
+            processBufferedDataInParallel();
+            return;
+        }
+        int counter = 0;
+        while (dataRecordsBuffer.poll(dataRecord)) {
             processDataRecord(dataRecord);
+            numberOfProcessedRecords++;
+            counter++;
+            if (counter % PUBLISHING_PERIOD == 0) {
+                publishSizes();
+            }
+        }
+        publishSizes();
+    }
+
+    private void processBufferedDataInParallel() {
+        while (true) {
+            recordsBatchSize = 0;
+            while (recordsBatchSize < recordsBatch.length && dataRecordsBuffer.poll(recordsBatch[recordsBatchSize])) {
+                recordsBatchSize++;
+            }
+            if (recordsBatchSize == 0) {
+                return;
+            }
+            try {
+                for (Future<Void> future : executor.invokeAll(signalTasks)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                log.error(e);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Signal processing failed", e.getCause());
+            }
+            numberOfProcessedRecords += recordsBatchSize;
+            publishSizes();
+        }
+    }
+
+    private void createExecutor(int numberOfThreads) {
+        executor = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "DataStore signal processing");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        recordsBatch = new byte[BATCH_SIZE][dataRecordSize];
+        signalTasks = new ArrayList<Callable<Void>>();
+        for (int i = 0; i < getNumberOfSignals(); i++) {
+            if (channelsMask[i]) {
+                final int signalNumber = i;
+                final int[] buffer = new int[bdfParser.getMaxSignalNumberOfSamples()];
+                signalTasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int recordNumber = 0; recordNumber < recordsBatchSize; recordNumber++) {
+                            processSignal(recordsBatch[recordNumber], signalNumber, buffer);
+                        }
+                        return null;
+                    }
+                });
+            }
+        }
+    }
+
+    private void publishSizes() {
+        int[] sizes = new int[channelsList.length];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = channelsList[i].size();
+        }
+        publishedSizes = sizes;
+    }
+
+    private void reportDroppedRecords() {
+        long droppedCount = dataRecordsBuffer.getDroppedCount();
+        if (droppedCount > reportedDroppedCount) {
+            log.warn("Data records buffer overflow. Dropped records: " + droppedCount
+                    + " Buffer depth: " + dataRecordsBuffer.getDepth() + " / " + dataRecordsBuffer.getCapacity());
+            reportedDroppedCount = droppedCount;
         }
     }
 
     private void processDataRecord(byte[] bdfDataRecord) {
         for (int signalNumber = 0; signalNumber < getNumberOfSignals(); signalNumber++) {
-            int[] signalData = bdfParser.parseDataRecordSignal(bdfDataRecord, signalNumber);
             if (channelsMask[signalNumber]) {
-                for (int dataValue : signalData) {
-                    if (preFiltersList[signalNumber] != null) {
-                        preFiltersList[signalNumber].add(dataValue);
-                    } else {
-                        channelsList[signalNumber].add(dataValue);
-                    }
-                }
+                processSignal(bdfDataRecord, signalNumber, signalBuffer);
+            }
+        }
+    }
+
+    private void processSignal(byte[] bdfDataRecord, int signalNumber, int[] buffer) {
+        int numberOfSamples = bdfParser.parseDataRecordSignal(bdfDataRecord, signalNumber, buffer, 0);
+        PreFilter preFilter = preFiltersList[signalNumber];
+        if (preFilter != null) {
+            for (int i = 0; i < numberOfSamples; i++) {
+                preFilter.add(buffer[i]);
             }
+        } else {
+            channelsList[signalNumber].addAll(buffer, 0, numberOfSamples);
+        }
+    }
+
+    /**
+     * Read only view of the channel data limited by the published size.
+     * So GUI never sees the data that are being appended at the moment
+     */
+    private class PublishedChannel implements DataSeries {
+        private final int signalNumber;
+
+        PublishedChannel(int signalNumber) {
+            this.signalNumber = signalNumber;
+        }
+
+        @Override
+        public int size() {
+            return publishedSizes[signalNumber];
+        }
+
+        @Override
+        public int get(int index) {
+            return channelsList[signalNumber].get(index);
+        }
+
+        @Override
+        public void get(int fromIndex, int[] dest, int destOffset, int length) {
+            channelsList[signalNumber].get(fromIndex, dest, destOffset, length);
+        }
+
+        @Override
+        public Scaling getScaling() {
+            return channelsList[signalNumber].getScaling();
+        }
+
+        @Override
+        public boolean isAppendOnly() {
+            return true;
         }
     }
 
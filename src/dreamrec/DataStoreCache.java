@@ -0,0 +1,140 @@
+package dreamrec;
+
+import data.DataList;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Columnar sidecar cache of the DataStore channels, stored next to the bdf file ("filename.bdf.cache").
+ *
+ * CACHE FILE
+ * 4 bytes : magic number
+ * 8 bytes : size of the bdf file
+ * 8 bytes : last modified time of the bdf file
+ * UTF string : configuration signature (prefilters and channels mask)
+ * 4 bytes : number of channels (n)
+ * n * 4 bytes : number of samples in every channel
+ * padding to the multiple of 4 bytes
+ * data : n contiguous int32 arrays (one per channel)
+ *
+ * Cache is valid only if the bdf file size, modification time and signature match.
+ */
+class DataStoreCache {
+    private static final Log log = LogFactory.getLog(DataStoreCache.class);
+    private static final int MAGIC = 0x52444331; // "RDC1"
+    private static final String EXTENSION = ".cache";
+    // the offset of the "last modified" field in the cache file
+    private static final int LAST_MODIFIED_OFFSET = 4 + 8;
+
+    static File getCacheFile(File bdfFile) {
+        return new File(bdfFile.getPath() + EXTENSION);
+    }
+
+    /**
+     * @return memory mapped channels data or null if there is no valid cache for the given file and signature
+     */
+    static IntBuffer[] read(File bdfFile, String signature) {
+        File cacheFile = getCacheFile(bdfFile);
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(cacheFile, "r")) {
+            if (file.readInt() != MAGIC || file.readLong() != bdfFile.length()
+                    || file.readLong() != bdfFile.lastModified() || !file.readUTF().equals(signature)) {
+                return null;
+            }
+            int numberOfChannels = file.readInt();
+            int[] channelsSizes = new int[numberOfChannels];
+            long dataSize = 0;
+            for (int i = 0; i < numberOfChannels; i++) {
+                channelsSizes[i] = file.readInt();
+                dataSize += channelsSizes[i] * 4L;
+            }
+            long dataOffset = align(file.getFilePointer());
+            if (dataOffset + dataSize != file.length()) {
+                return null;
+            }
+            MappedByteBuffer data = file.getChannel().map(FileChannel.MapMode.READ_ONLY, dataOffset, dataSize);
+            IntBuffer[] channelsData = new IntBuffer[numberOfChannels];
+            int position = 0;
+            for (int i = 0; i < numberOfChannels; i++) {
+                data.limit(position + channelsSizes[i] * 4).position(position);
+                channelsData[i] = data.slice().asIntBuffer();
+                position += channelsSizes[i] * 4;
+            }
+            return channelsData;
+        } catch (IOException e) {
+            log.error(e);
+            return null;
+        }
+    }
+
+    static void write(File bdfFile, String signature, DataList[] channels) {
+        File cacheFile = getCacheFile(bdfFile);
+        try (RandomAccessFile file = new RandomAccessFile(cacheFile, "rw")) {
+            file.setLength(0);
+            file.writeInt(MAGIC);
+            file.writeLong(bdfFile.length());
+            file.writeLong(bdfFile.lastModified());
+            file.writeUTF(signature);
+            file.writeInt(channels.length);
+            for (DataList channel : channels) {
+                file.writeInt(channel.size());
+            }
+            file.seek(align(file.getFilePointer()));
+            FileChannel fileChannel = file.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            int[] values = new int[buffer.capacity() / 4];
+            for (DataList channel : channels) {
+                for (int i = 0; i < channel.size(); i += values.length) {
+                    int length = Math.min(values.length, channel.size() - i);
+                    channel.get(i, values, 0, length);
+                    buffer.asIntBuffer().put(values, 0, length);
+                    buffer.position(length * 4);
+                    writeBuffer(fileChannel, buffer);
+                }
+            }
+        } catch (IOException e) {
+            log.error(e);
+            cacheFile.delete();
+        }
+    }
+
+    /**
+     * Bdf header rewriting changes the file modification time but not the data.
+     * If the cache was valid for the file modified at the given time we mark it as valid for the current file
+     */
+    static void updateLastModified(File bdfFile, long previousLastModified) {
+        File cacheFile = getCacheFile(bdfFile);
+        if (!cacheFile.isFile()) {
+            return;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(cacheFile, "rw")) {
+            file.seek(LAST_MODIFIED_OFFSET);
+            if (file.readLong() == previousLastModified) {
+                file.seek(LAST_MODIFIED_OFFSET);
+                file.writeLong(bdfFile.lastModified());
+            }
+        } catch (IOException e) {
+            log.error(e);
+        }
+    }
+
+    private static void writeBuffer(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static long align(long position) {
+        return (position + 3) / 4 * 4;
+    }
+}
@@ -2,4 +2,12 @@ package dreamrec;
 
 public interface DataStoreListener {
     public void onDataUpdate();
+
+    /**
+     * Called before onDataUpdate() for every channel that got new values
+     * since the previous notification, so listeners can process only them.
+     * New values of the channel: [fromIndex, toIndex)
+     */
+    public default void onDataAppended(int channelNumber, int fromIndex, int toIndex) {
+    }
 }
@@ -1,8 +1,11 @@
 package dreamrec;
 
 import data.CompressionType;
+import data.DataCache;
 import data.DataSeries;
 import filters.*;
+import filters.streaming.FilterPipeline;
+import filters.streaming.StreamingFilter;
 import functions.Abs;
 import functions.Constant;
 import functions.Minus;
@@ -37,26 +40,48 @@ public class Presenter implements  ControllerListener {
         if(dataStore instanceof DataStore) {
             DataStore dataStore1 = (DataStore) dataStore;
             configureGraphViewer(dataStore1);
-            dataStore1.addListener(new DataStoreListener() {
-                @Override
-                public void onDataUpdate() {
-                    graphViewer.autoScroll();
-                }
-            });
+            double[] samplingIntervals = new double[dataStore1.getNumberOfChannels()];
+            for (int i = 0; i < samplingIntervals.length; i++) {
+                samplingIntervals[i] = dataStore1.getChannelData(i).getScaling().getSamplingInterval();
+            }
+            dataStore1.addListener(createGraphUpdater(samplingIntervals));
         }
 
         if(dataStore instanceof RemDataStore) {
             RemDataStore remDataStore = (RemDataStore) dataStore;
             configureRemGraphViewer(remDataStore);
-            remDataStore.addListener(new DataStoreListener() {
-                @Override
-                public void onDataUpdate() {
-                    graphViewer.autoScroll();
-                }
-            });
+            double[] samplingIntervals = new double[remDataStore.getNumberOfChannels()];
+            for (int i = 0; i < samplingIntervals.length; i++) {
+                samplingIntervals[i] = remDataStore.getChannelData(i).getScaling().getSamplingInterval();
+            }
+            remDataStore.addListener(createGraphUpdater(samplingIntervals));
         }
     }
 
+    /**
+     * Passes to the graph viewer the time range of the data appended to all channels
+     * so it updates only what shows them
+     */
+    private DataStoreListener createGraphUpdater(final double[] samplingIntervals) {
+        return new DataStoreListener() {
+            private double appendedFromTime = Double.MAX_VALUE;
+            private double appendedToTime = 0;
+
+            @Override
+            public void onDataAppended(int channelNumber, int fromIndex, int toIndex) {
+                appendedFromTime = Math.min(appendedFromTime, fromIndex * samplingIntervals[channelNumber]);
+                appendedToTime = Math.max(appendedToTime, toIndex * samplingIntervals[channelNumber]);
+            }
+
+            @Override
+            public void onDataUpdate() {
+                graphViewer.dataAppended(appendedFromTime, appendedToTime);
+                appendedFromTime = Double.MAX_VALUE;
+                appendedToTime = 0;
+            }
+        };
+    }
+
     private void configureRemGraphViewer(RemDataStore remDataStore) {
         sasha(remDataStore);
     }
@@ -71,7 +96,8 @@ public class Presenter implements  ControllerListener {
         if(dataStore.getNumberOfChannels() > 0) {
             DataSeries channel = dataStore.getChannelData(0);
             graphViewer.addPreviewPanel(1, false);
-            DataSeries velocityRem =  new Abs(new FilterDerivativeRem(channel));
+            StreamingFilter velocityRem =  new FilterPipeline(channel).derivativeRem().abs().build();
+            dataStore.addStreamingFilter(velocityRem);
             graphViewer.addPreview(velocityRem, CompressionType.AVERAGE);
         }
 
@@ -132,13 +158,15 @@ public class Presenter implements  ControllerListener {
     private void sasha(RemDataStore remDataStore) {
         double eogCutOffInterval = 10; //sec. to remove steady component (cutoff_frequency = 1/cutoff_period )
         DataSeries eogFull = remDataStore.getEog1Data();
-        DataSeries eog = new HiPassCollectingFilter(eogFull, eogCutOffInterval);
+        StreamingFilter eog = new FilterPipeline(eogFull).hiPass(eogCutOffInterval).build();
+        remDataStore.addStreamingFilter(eog);
         DataSeries accMovement = remDataStore.getAccMovementData();
         DataSeries isSleep = remDataStore.isSleep();
 
         double accMovementLimit = remDataStore.getAccMovementLimit();
 
-        FilterDerivativeRem eogDerivativeRem =  new FilterDerivativeRem(eog);
+        // derivative is shown in the graph and in the preview so its blocks are cached
+        DataSeries eogDerivativeRem =  new DataCache(new FilterDerivativeRem(eog));
         DataSeries eogDerivativeRemAbs =  new Abs(eogDerivativeRem);
 
 
@@ -1,6 +1,7 @@
 package dreamrec;
 
 import bdf.BdfProvider;
+import device.emulator.AdsEmulator;
 import device.general.Ads;
 import device.general.AdsConfiguration;
 import gui.GuiConfig;
@@ -58,6 +59,14 @@ public class PropertiesServiceLocator implements ServiceLocator {
             throw new ApplicationException("Device can not be Instantiated");
         }
         device.setAdsConfigurator(adsConfig);
+        device.setSerialReaderBufferSize(appProperties.getSerialReaderBufferSize());
+        if (device instanceof AdsEmulator) {
+            AdsEmulator emulator = (AdsEmulator) device;
+            emulator.setFrameFormat(appProperties.getEmulatorFrameFormat());
+            emulator.setSpeed(appProperties.getEmulatorSpeed());
+            emulator.setFrameLossProbability(appProperties.getEmulatorFrameLoss());
+            emulator.setSourceFile(appProperties.getEmulatorBdfFile());
+        }
         return device;
     }
 
@@ -71,4 +80,39 @@ public class PropertiesServiceLocator implements ServiceLocator {
     public String[] detDeviceSignalsLabels() {
         return appProperties.getDeviceChannelsLabels();
     }
+
+    @Override
+    public boolean isOffHeapStorage() {
+        return appProperties.isOffHeapStorage();
+    }
+
+    @Override
+    public int getMaxChunksInMemory() {
+        return appProperties.getMaxChunksInMemory();
+    }
+
+    @Override
+    public boolean isCompressedStorage() {
+        return appProperties.isCompressedStorage();
+    }
+
+    @Override
+    public BufferOverflowPolicy getBufferOverflowPolicy() {
+        return appProperties.getBufferOverflowPolicy();
+    }
+
+    @Override
+    public int getNumberOfProcessingThreads() {
+        return appProperties.getNumberOfProcessingThreads();
+    }
+
+    @Override
+    public int getWriteBufferSize() {
+        return appProperties.getWriteBufferSize();
+    }
+
+    @Override
+    public int getWriteFlushPeriodMs() {
+        return appProperties.getWriteFlushPeriodMs();
+    }
 }
@@ -0,0 +1,200 @@
+package dreamrec;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single producer / single consumer ring of preallocated data record slots.
+ * Producer (acquisition or file reading thread) copies records to the slots and
+ * consumer copies them out, so nothing is allocated and no locks are taken
+ * on the normal path. When the ring is full the BufferOverflowPolicy is applied.
+ * <p>
+ * DROP_OLDEST: producer moves the read index forward. The consumer confirms every read
+ * by CAS of the read index, so a slot overwritten while it was being copied is never returned.
+ * <p>
+ * SPILL: new records are appended to a temporary file until the consumer has read
+ * all spilled records (records in the ring are always older than spilled ones).
+ */
+class RecordRingBuffer {
+    private static final Log log = LogFactory.getLog(RecordRingBuffer.class);
+    private static final long BLOCK_PARK_NANOS = 100 * 1000;
+
+    private final byte[][] slots;
+    private final int recordSize;
+    private final BufferOverflowPolicy overflowPolicy;
+    private final AtomicLong readIndex = new AtomicLong();
+    private final AtomicLong writeIndex = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong spilledCount = new AtomicLong();
+
+    private final Object spillLock = new Object();
+    private volatile boolean isSpilling = false;
+    private RandomAccessFile spillFile;
+    private File spillFilePath;
+    private long spillReadPosition;
+    private long spillWritePosition;
+    private volatile int spillDepth;
+    private volatile boolean isClosed = false;
+
+    RecordRingBuffer(int capacity, int recordSize, BufferOverflowPolicy overflowPolicy) {
+        this.recordSize = recordSize;
+        this.overflowPolicy = overflowPolicy;
+        slots = new byte[Math.max(1, capacity)][recordSize];
+    }
+
+    /**
+     * Called only by the producer thread
+     */
+    void put(byte[] dataRecord) throws InterruptedException {
+        if (isClosed) {
+            return;
+        }
+        if (isSpilling) {
+            synchronized (spillLock) {
+                if (isSpilling) {
+                    spill(dataRecord);
+                    return;
+                }
+            }
+        }
+        long write = writeIndex.get();
+        while (write - readIndex.get() >= slots.length) {
+            if (isClosed) { // consumer will never read the record
+                return;
+            }
+            switch (overflowPolicy) {
+                case DROP_OLDEST:
+                    long read = readIndex.get();
+                    if (write - read >= slots.length && readIndex.compareAndSet(read, read + 1)) {
+                        droppedCount.incrementAndGet();
+                    }
+                    break;
+                case SPILL:
+                    synchronized (spillLock) {
+                        isSpilling = true;
+                        spill(dataRecord);
+                    }
+                    return;
+                default:
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+            }
+        }
+        System.arraycopy(dataRecord, 0, slots[(int) (write % slots.length)], 0, recordSize);
+        writeIndex.lazySet(write + 1);
+    }
+
+    /**
+     * Called only by the consumer thread
+     *
+     * @return false if there are no buffered records
+     */
+    boolean poll(byte[] dest) {
+        while (true) {
+            long read = readIndex.get();
+            if (read >= writeIndex.get()) {
+                return isSpilling && pollSpilled(dest);
+            }
+            System.arraycopy(slots[(int) (read % slots.length)], 0, dest, 0, recordSize);
+            if (readIndex.compareAndSet(read, read + 1)) {
+                return true;
+            }
+            // the slot was dropped by the producer while we were copying it
+        }
+    }
+
+    /**
+     * @return number of buffered (not yet consumed) records
+     */
+    int getDepth() {
+        return (int) (writeIndex.get() - readIndex.get()) + spillDepth;
+    }
+
+    int getCapacity() {
+        return slots.length;
+    }
+
+    long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    /**
+     * Delete spill file (if any). Buffered records are lost.
+     * Records put after closing are ignored (so the blocked producer is released)
+     */
+    void close() {
+        isClosed = true;
+        synchronized (spillLock) {
+            if (spillFile != null) {
+                try {
+                    spillFile.close();
+                } catch (IOException e) {
+                    log.error(e);
+                }
+                spillFile = null;
+                if (!spillFilePath.delete()) {
+                    log.warn("Spill file could not be deleted: " + spillFilePath);
+                }
+                spillFilePath = null;
+            }
+            spillReadPosition = 0;
+            spillWritePosition = 0;
+            spillDepth = 0;
+            isSpilling = false;
+        }
+    }
+
+    private void spill(byte[] dataRecord) {
+        try {
+            if (spillFile == null) {
+                spillFilePath = File.createTempFile("datastore", ".spill");
+                spillFilePath.deleteOnExit();
+                spillFile = new RandomAccessFile(spillFilePath, "rw");
+            }
+            spillFile.seek(spillWritePosition);
+            spillFile.write(dataRecord, 0, recordSize);
+            spillWritePosition += recordSize;
+            spillDepth++;
+            spilledCount.incrementAndGet();
+        } catch (IOException e) {
+            log.error("Data record spilling failed. Record is lost", e);
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    private boolean pollSpilled(byte[] dest) {
+        synchronized (spillLock) {
+            if (spillDepth == 0) {
+                return false;
+            }
+            try {
+                spillFile.seek(spillReadPosition);
+                spillFile.readFully(dest, 0, recordSize);
+            } catch (IOException e) {
+                log.error("Spilled data record reading failed. Record is lost", e);
+                droppedCount.incrementAndGet();
+            }
+            spillReadPosition += recordSize;
+            spillDepth--;
+            if (spillDepth == 0) {
+                // all spilled records are read so producer can use the ring again
+                spillReadPosition = 0;
+                spillWritePosition = 0;
+                isSpilling = false;
+            }
+            return true;
+        }
+    }
+}
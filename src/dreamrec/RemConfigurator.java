@@ -48,6 +48,30 @@ public class RemConfigurator {
     }
 
 
+    /**
+     * @return frequencies of the signals in REM mode (0 - signal frequency is not changed).
+     * Readers that can decimate signals while reading (BdfReader) may deliver them
+     * at these frequencies at once so the prefilters will have nothing to do
+     */
+    public int[] getSignalsFrequencies(BdfConfig bdfConfig, RemChannels remChannels) {
+        int[] frequencies = BdfNormalizer.getNormalizedSignalsFrequencies(bdfConfig);
+        int[] remFrequencies = new int[frequencies.length];
+        for(int i = 0; i < frequencies.length; i++) {
+            if(eogRemFrequency != 0 && (i == remChannels.getEog1() || i == remChannels.getEog2() || i == remChannels.getEeg())) {
+                if((frequencies[i] % eogRemFrequency) == 0) {
+                    remFrequencies[i] = eogRemFrequency;
+                }
+            }
+            if(accelerometerRemFrequency != 0 && (i == remChannels.getAccelerometerX() || i == remChannels.getAccelerometerY() || i == remChannels.getAccelerometerZ())) {
+                if((frequencies[i] % accelerometerRemFrequency) == 0) {
+                    remFrequencies[i] = accelerometerRemFrequency;
+                }
+            }
+        }
+        return remFrequencies;
+    }
+
+
     public PreFilter[] getPreFilters(BdfConfig bdfConfig, RemChannels remChannels) throws ApplicationException {
         int rps = (int) (1/bdfConfig.getDurationOfDataRecord());
         if(rps > RPS_MAX) { // something wrong and we just do nothing
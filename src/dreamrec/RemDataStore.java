@@ -4,13 +4,15 @@ import bdf.BdfConfig;
 import bdf.BdfProvider;
 import bdf.BdfRecordsJoiner;
 import data.*;
-import filters.FilterDerivativeRem;
+import filters.streaming.StreamingDerivativeRem;
+import filters.streaming.StreamingFilter;
+import filters.streaming.StreamingRising;
 import functions.BooleanAND;
 import functions.Composition;
-import functions.Rising;
 import functions.Trigger;
 import prefilters.PreFilter;
 
+import java.io.File;
 import java.util.ArrayList;
 
 /**
@@ -23,6 +25,7 @@ public class RemDataStore  implements DataStoreListener {
     private DataStore dataStore;
     private RemChannels remChannels;
     private BdfProvider bdfProvider;
+    private DataSeries accMovement;
 
     private ArrayList<DataStoreListener> updateListeners = new ArrayList<DataStoreListener>();
 
@@ -87,10 +90,46 @@ public class RemDataStore  implements DataStoreListener {
 
             dataStore = new DataStore(bdfProviderNew);
             dataStore.setPreFilters(prefilters);
+            accMovement = null;
             dataStore.addListener(this);
         }
     }
 
+    public void setChunkedStorage(boolean isOffHeap, int maxChunksInMemory) {
+        dataStore.setChunkedStorage(isOffHeap, maxChunksInMemory);
+    }
+
+    public void setCompressedStorage() {
+        dataStore.setCompressedStorage();
+    }
+
+    public void setBufferOverflowPolicy(BufferOverflowPolicy overflowPolicy) {
+        dataStore.setBufferOverflowPolicy(overflowPolicy);
+    }
+
+    public void setNumberOfProcessingThreads(int numberOfThreads) {
+        dataStore.setNumberOfProcessingThreads(numberOfThreads);
+    }
+
+    public void awaitProcessing() throws InterruptedException {
+        dataStore.awaitProcessing();
+    }
+
+    /**
+     * @see DataStore#close()
+     */
+    public void close() {
+        dataStore.close();
+    }
+
+    public boolean isProcessingFailed() {
+        return dataStore.isProcessingFailed();
+    }
+
+    public boolean readCache(File bdfFile) {
+        return dataStore.readCache(bdfFile);
+    }
+
     public double getAccMovementLimit() {
         // movementLimit = (int)(0.15 / getAccXData().getDataCalibration().getGain());
         return accMovementLimit;
@@ -104,7 +143,14 @@ public class RemDataStore  implements DataStoreListener {
         updateListeners.add(dataStoreListener);
     }
 
-    public DataList getChannelData(int channelNumber) {
+    /**
+     * @see DataStore#addStreamingFilter(StreamingFilter)
+     */
+    public void addStreamingFilter(StreamingFilter streamingFilter) {
+        dataStore.addStreamingFilter(streamingFilter);
+    }
+
+    public DataSeries getChannelData(int channelNumber) {
         return dataStore.getChannelData(channelNumber);
     }
 
@@ -127,6 +173,13 @@ public class RemDataStore  implements DataStoreListener {
         fireDataUpdated();
     }
 
+    @Override
+    public void onDataAppended(int channelNumber, int fromIndex, int toIndex) {
+        for (DataStoreListener listener : updateListeners) {
+            listener.onDataAppended(channelNumber, fromIndex, toIndex);
+        }
+    }
+
     public DataSeries getEegData() {
         if(remChannels.getEeg() >= 0) {
             return dataStore.getSignalData(remChannels.getEeg());
@@ -167,24 +220,34 @@ public class RemDataStore  implements DataStoreListener {
      * За ноль принят шумовой уровень.
      */
     public DataSeries getAccMovementData() {
-        Composition accMovement = new Composition();
+        if (accMovement != null) {
+            return accMovement;
+        }
+        Composition composition = new Composition();
         try {
-            accMovement.add(new Rising(getAccXData()));
-            accMovement.add(new Rising(getAccYData()));
-            accMovement.add(new Rising(getAccZData()));
+            composition.add(createStreamingRising(getAccXData()));
+            composition.add(createStreamingRising(getAccYData()));
+            composition.add(createStreamingRising(getAccZData()));
         } catch (ApplicationException e) {
             throw new IllegalArgumentException(e.getMessage());
         }
-
+        accMovement = composition;
         return accMovement;
     }
 
+    private DataSeries createStreamingRising(DataSeries accData) {
+        StreamingFilter rising = new StreamingRising(accData);
+        dataStore.addStreamingFilter(rising);
+        return rising;
+    }
+
     private DataSeries isNotMove() {
         return new Trigger(getAccMovementData(), accMovementLimit);
     }
 
     private DataSeries isEogOk() {
-        FilterDerivativeRem derivativeRem = new FilterDerivativeRem(getEog1Data());
+        StreamingFilter derivativeRem = new StreamingDerivativeRem(getEog1Data());
+        dataStore.addStreamingFilter(derivativeRem);
         return new Trigger(derivativeRem, 400);
     }
 
@@ -192,12 +255,13 @@ public DataSeries isSleep() {
         BooleanAND isSleep = new BooleanAND();
         try {
             DataCompressor isNotMove = new DataCompressor(isNotMove(), CompressionType.BOOLEAN);
+            DataSeries isEogOk = isEogOk();
             double samplingInterval = 1;
-            if(isEogOk().getScaling() != null) {
-                samplingInterval = isEogOk().getScaling().getSamplingInterval();
+            if(isEogOk.getScaling() != null) {
+                samplingInterval = isEogOk.getScaling().getSamplingInterval();
             }
             isNotMove.setSamplingInterval(samplingInterval);
-            isSleep.add(isEogOk());
+            isSleep.add(isEogOk);
             isSleep.add(isNotMove);
             //return isSleep;
             return isNotMove;
@@ -11,4 +11,11 @@ public interface ServiceLocator {
     public BdfProvider getDevice() throws ApplicationException;
     public RemConfigurator getRemConfigurator();
     public String[] detDeviceSignalsLabels();
+    public boolean isOffHeapStorage();
+    public int getMaxChunksInMemory();
+    public boolean isCompressedStorage();
+    public BufferOverflowPolicy getBufferOverflowPolicy();
+    public int getNumberOfProcessingThreads();
+    public int getWriteBufferSize();
+    public int getWriteFlushPeriodMs();
 }
@@ -35,5 +35,13 @@ public class FilterDerivativeRem extends Function {
         return inputData.get(index) - inputData.get(index - distance_point);
         //return Math.abs(inputData.get(index)) - Math.abs(inputData.get(index - distance_point));
     }
+
+    /**
+     * Only previous values are used so existing values do not change while input data grow
+     */
+    @Override
+    public boolean isAppendOnly() {
+        return inputData.isAppendOnly();
+    }
 }
 
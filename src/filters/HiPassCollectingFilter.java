@@ -53,6 +53,11 @@ public class HiPassCollectingFilter implements DataSeries {
         return outputData.get(index);
     }
 
+    @Override
+    public void get(int fromIndex, int[] dest, int destOffset, int length) {
+        collectData();
+        outputData.get(fromIndex, dest, destOffset, length);
+    }
 
     @Override
     public int size() {
@@ -70,5 +75,10 @@ public class HiPassCollectingFilter implements DataSeries {
         return outputData.getScaling();
     }
 
+    @Override
+    public boolean isAppendOnly() {
+        return inputData.isAppendOnly();
+    }
+
 
 }
@@ -0,0 +1,13 @@
+package filters.streaming;
+
+/**
+ * Absolute values (as Abs)
+ */
+class AbsStage implements Stage {
+    @Override
+    public void process(int[] values, int length) {
+        for (int i = 0; i < length; i++) {
+            values[i] = Math.abs(values[i]);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package filters.streaming;
+
+/**
+ * value(i) - value(i - distance) and 0 for the first "distance" values (as FilterDerivativeRem).
+ * Last "distance" input values are kept in the ring so input data are never re-read
+ */
+class DerivativeStage implements Stage {
+    private int[] history;
+    private int count;
+
+    DerivativeStage(int distance) {
+        history = new int[distance];
+    }
+
+    @Override
+    public void process(int[] values, int length) {
+        int[] history = this.history;
+        int distance = history.length;
+        int count = this.count;
+        int position = count % distance;
+        for (int i = 0; i < length; i++) {
+            int value = values[i];
+            int result = 0;
+            if (count >= distance) {
+                result = value - history[position];
+            }
+            history[position] = value;
+            count++;
+            position = (position + 1 == distance) ? 0 : position + 1;
+            values[i] = result;
+        }
+        this.count = count;
+    }
+}
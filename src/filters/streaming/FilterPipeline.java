@@ -0,0 +1,122 @@
+package filters.streaming;
+
+import data.DataSeries;
+import data.Scaling;
+import data.ScalingImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds one fused filter from a chain of filters/functions. Instead of
+ * new Abs(new FilterDerivativeRem(new HiPassCollectingFilter(eog, 10)))
+ * where every get(index) goes through all levels of the chain and every level re-reads its input:
+ * <pre>
+ *     new FilterPipeline(eog).hiPass(10).derivativeRem().abs().build()
+ * </pre>
+ * Input data are read by blocks and every block is passed through all the stages
+ * (each stage is a tight loop over the block with its state in local variables).
+ * Results are the same as the results of the corresponding chain.
+ */
+public class FilterPipeline {
+    private DataSeries inputData;
+    private List<Stage> stages = new ArrayList<Stage>();
+    private boolean isBuilt = false;
+    private boolean isDataOffsetRemoved = false;
+
+    public FilterPipeline(DataSeries inputData) {
+        this.inputData = inputData;
+    }
+
+    /**
+     * As FilterHiPass(inputData, bufferSize)
+     */
+    public FilterPipeline hiPass(int bufferSize) {
+        stages.add(new HiPassStage(bufferSize));
+        return this;
+    }
+
+    /**
+     * As HiPassCollectingFilter(inputData, cutOffInterval):
+     * unlike hiPass(bufferSize) the resulting scaling has zero data offset
+     *
+     * @param cutOffInterval in seconds
+     */
+    public FilterPipeline hiPass(double cutOffInterval) {
+        double samplingInterval = 1;
+        if(inputData.getScaling() != null) {
+            samplingInterval = inputData.getScaling().getSamplingInterval();
+        }
+        int bufferSize = (int)(cutOffInterval / samplingInterval);
+        if (bufferSize > 0) {
+            isDataOffsetRemoved = true;
+        }
+        return hiPass(bufferSize);
+    }
+
+    /**
+     * As FilterDerivativeRem(inputData)
+     */
+    public FilterPipeline derivativeRem() {
+        return derivativeRem(StreamingDerivativeRem.DEFAULT_DISTANCE_MS);
+    }
+
+    /**
+     * As FilterDerivativeRem(inputData, timeMs)
+     */
+    public FilterPipeline derivativeRem(int timeMs) {
+        stages.add(new DerivativeStage(StreamingDerivativeRem.getDistance(inputData, timeMs)));
+        return this;
+    }
+
+    /**
+     * As Abs(inputData)
+     */
+    public FilterPipeline abs() {
+        stages.add(new AbsStage());
+        return this;
+    }
+
+    /**
+     * As Rising(inputData, step)
+     */
+    public FilterPipeline rising(int step) {
+        stages.add(new RisingStage(step));
+        return this;
+    }
+
+    public StreamingFilter build() throws IllegalStateException {
+        return build(-1);
+    }
+
+    /**
+     * @param ringCapacity number of last output values to keep. If <= 0 all values are kept
+     */
+    public StreamingFilter build(int ringCapacity) throws IllegalStateException {
+        // stages keep their state so they can not be shared by several filters
+        if (isBuilt) {
+            throw new IllegalStateException("Pipeline is already built");
+        }
+        isBuilt = true;
+        final Stage[] stagesArray = stages.toArray(new Stage[stages.size()]);
+        final boolean isDataOffsetRemoved = this.isDataOffsetRemoved;
+        return new StreamingFilter(inputData, ringCapacity) {
+            @Override
+            protected void process(int[] values, int length) {
+                for (Stage stage : stagesArray) {
+                    stage.process(values, length);
+                }
+            }
+
+            @Override
+            public Scaling getScaling() {
+                if (!isDataOffsetRemoved || inputData.getScaling() == null) {
+                    return inputData.getScaling();
+                }
+                ScalingImpl scaling = new ScalingImpl(inputData.getScaling());
+                scaling.setDataOffset(0);
+                return scaling;
+            }
+        };
+    }
+}
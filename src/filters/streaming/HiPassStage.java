@@ -0,0 +1,43 @@
+package filters.streaming;
+
+/**
+ * Value minus the average of the last (bufferSize + 1) values (as FilterHiPass).
+ * The sum of the window is updated on every new value instead of being recalculated
+ */
+class HiPassStage implements Stage {
+    private int bufferSize;
+    private int[] window;
+    private int count;
+    private long sum;
+
+    HiPassStage(int bufferSize) {
+        this.bufferSize = bufferSize;
+        window = new int[bufferSize + 1];
+    }
+
+    @Override
+    public void process(int[] values, int length) {
+        if (bufferSize == 0) {
+            return;
+        }
+        // state is kept in local variables inside the loop
+        int[] window = this.window;
+        int windowLength = window.length;
+        int count = this.count;
+        long sum = this.sum;
+        int position = count % windowLength;
+        for (int i = 0; i < length; i++) {
+            int value = values[i];
+            if (count >= windowLength) {
+                sum -= window[position];
+            }
+            window[position] = value;
+            sum += value;
+            count++;
+            position = (position + 1 == windowLength) ? 0 : position + 1;
+            values[i] = value - (int) (sum / Math.min(count, windowLength));
+        }
+        this.count = count;
+        this.sum = sum;
+    }
+}
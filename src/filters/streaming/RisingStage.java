@@ -0,0 +1,93 @@
+package filters.streaming;
+
+/**
+ * Difference between max and min values on the last (step + 1) points (as Rising).
+ * Max and min are tracked with monotonic deques so every value costs amortized O(1)
+ */
+class RisingStage implements Stage {
+    private int windowSize;
+    private int count;
+    private IntDeque maxDeque;
+    private IntDeque minDeque;
+
+    RisingStage(int step) {
+        windowSize = step + 1;
+        maxDeque = new IntDeque(windowSize);
+        minDeque = new IntDeque(windowSize);
+    }
+
+    @Override
+    public void process(int[] values, int length) {
+        for (int i = 0; i < length; i++) {
+            values[i] = next(values[i]);
+        }
+    }
+
+    private int next(int value) {
+        // remove the values that left the window
+        int windowStart = count - windowSize + 1;
+        if (!maxDeque.isEmpty() && maxDeque.firstIndex() < windowStart) {
+            maxDeque.removeFirst();
+        }
+        if (!minDeque.isEmpty() && minDeque.firstIndex() < windowStart) {
+            minDeque.removeFirst();
+        }
+        while (!maxDeque.isEmpty() && maxDeque.lastValue() <= value) {
+            maxDeque.removeLast();
+        }
+        while (!minDeque.isEmpty() && minDeque.lastValue() >= value) {
+            minDeque.removeLast();
+        }
+        maxDeque.addLast(count, value);
+        minDeque.addLast(count, value);
+        count++;
+        return Math.abs(maxDeque.firstValue() - minDeque.firstValue());
+    }
+
+    /**
+     * Fixed capacity deque of (index, value) pairs
+     */
+    static class IntDeque {
+        private int[] indexes;
+        private int[] values;
+        private int head;
+        private int size;
+
+        IntDeque(int capacity) {
+            indexes = new int[capacity];
+            values = new int[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void addLast(int index, int value) {
+            int position = (head + size) % indexes.length;
+            indexes[position] = index;
+            values[position] = value;
+            size++;
+        }
+
+        void removeFirst() {
+            head = (head + 1) % indexes.length;
+            size--;
+        }
+
+        void removeLast() {
+            size--;
+        }
+
+        int firstIndex() {
+            return indexes[head];
+        }
+
+        int firstValue() {
+            return values[head];
+        }
+
+        int lastValue() {
+            return values[(head + size - 1) % indexes.length];
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package filters.streaming;
+
+/**
+ * One step of the streaming processing. Keeps its state between calls
+ */
+interface Stage {
+    /**
+     * Replace the next input values by the corresponding output values (in place)
+     */
+    void process(int[] values, int length);
+}
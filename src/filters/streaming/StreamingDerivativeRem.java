@@ -0,0 +1,45 @@
+package filters.streaming;
+
+import data.DataSeries;
+
+/**
+ * Streaming version of FilterDerivativeRem: value(i) - value(i - distance).
+ * Last "distance" input values are kept in the ring so input data are never re-read
+ */
+public class StreamingDerivativeRem extends StreamingFilter {
+    static final int DEFAULT_DISTANCE_MS = 20;
+    private DerivativeStage stage;
+
+    public StreamingDerivativeRem(DataSeries inputData) {
+        this(inputData, DEFAULT_DISTANCE_MS);
+    }
+
+    public StreamingDerivativeRem(DataSeries inputData, int timeMs) {
+        this(inputData, timeMs, -1);
+    }
+
+    public StreamingDerivativeRem(DataSeries inputData, int timeMs, int ringCapacity) {
+        super(inputData, ringCapacity);
+        stage = new DerivativeStage(getDistance(inputData, timeMs));
+    }
+
+    /**
+     * @return distance in points corresponding to the given time (as in FilterDerivativeRem)
+     */
+    static int getDistance(DataSeries inputData, int timeMs) {
+        double dataInterval = 1;
+        if(inputData.getScaling() != null) {
+            dataInterval = inputData.getScaling().getSamplingInterval();
+        }
+        int distance = (int) Math.round(timeMs / (dataInterval * 1000));
+        if(distance == 0) {
+            distance = 1;
+        }
+        return distance;
+    }
+
+    @Override
+    protected void process(int[] values, int length) {
+        stage.process(values, length);
+    }
+}
@@ -0,0 +1,127 @@
+package filters.streaming;
+
+import data.DataList;
+import data.DataSeries;
+import data.Scaling;
+
+/**
+ * Push-based incremental filter.
+ * <p>
+ * Unlike pull-based Functions (where every get(index) recalculates the value
+ * from the input window) input data are processed strictly in order,
+ * one value at a time, and the filter keeps its running state (sums, deques...).
+ * So every new input value costs O(1) whatever the filter window is.
+ * <p>
+ * Computed values are memoised: all of them in DataList or
+ * only the last ringCapacity values in a ring buffer.
+ * New input data are processed on update() (called automatically by size() and get()
+ * or by StreamingFilterGroup every time DataStore appends new data).
+ */
+public abstract class StreamingFilter implements DataSeries {
+    private static final int BLOCK_SIZE = 1024;
+    protected DataSeries inputData;
+    private int counter; // number of processed input values = number of output values
+    private DataList outputData;
+    private int[] ring;
+    private int[] block = new int[BLOCK_SIZE];
+
+    protected StreamingFilter(DataSeries inputData) {
+        this(inputData, -1);
+    }
+
+    /**
+     * @param ringCapacity number of last output values to keep. If <= 0 all values are kept
+     */
+    protected StreamingFilter(DataSeries inputData, int ringCapacity) {
+        this.inputData = inputData;
+        if (ringCapacity > 0) {
+            ring = new int[ringCapacity];
+        } else {
+            outputData = new DataList();
+        }
+    }
+
+    /**
+     * Replace the next input values by the corresponding output values.
+     * Called strictly in input order, once for every input value
+     */
+    protected abstract void process(int[] values, int length);
+
+    /**
+     * Process all new input values
+     */
+    public void update() {
+        int inputSize = inputData.size();
+        while (counter < inputSize) {
+            int length = Math.min(BLOCK_SIZE, inputSize - counter);
+            inputData.get(counter, block, 0, length);
+            process(block, length);
+            if (ring != null) {
+                for (int i = 0; i < length; i++) {
+                    ring[(counter + i) % ring.length] = block[i];
+                }
+            } else {
+                outputData.addAll(block, 0, length);
+            }
+            counter += length;
+        }
+    }
+
+    @Override
+    public int size() {
+        update();
+        return counter;
+    }
+
+    @Override
+    public int get(int index) {
+        if (index >= counter) {
+            update();
+        }
+        if (ring != null) {
+            checkAvailable(index);
+            return ring[index % ring.length];
+        }
+        return outputData.get(index);
+    }
+
+    @Override
+    public void get(int fromIndex, int[] dest, int destOffset, int length) {
+        if (fromIndex + length > counter) {
+            update();
+        }
+        if (ring == null) {
+            outputData.get(fromIndex, dest, destOffset, length);
+            return;
+        }
+        checkAvailable(fromIndex);
+        while (length > 0) {
+            int ringIndex = fromIndex % ring.length;
+            int n = Math.min(length, ring.length - ringIndex);
+            System.arraycopy(ring, ringIndex, dest, destOffset, n);
+            fromIndex += n;
+            destOffset += n;
+            length -= n;
+        }
+    }
+
+    private void checkAvailable(int index) throws IndexOutOfBoundsException {
+        if (index < counter - ring.length || index >= counter) {
+            String msg = "Index = " + index + " Available values: " + Math.max(0, counter - ring.length) + " - " + (counter - 1);
+            throw new IndexOutOfBoundsException(msg);
+        }
+    }
+
+    @Override
+    public Scaling getScaling() {
+        return inputData.getScaling();
+    }
+
+    /**
+     * Every input value is processed once, so output values never change
+     */
+    @Override
+    public boolean isAppendOnly() {
+        return inputData.isAppendOnly();
+    }
+}
@@ -0,0 +1,35 @@
+package filters.streaming;
+
+import dreamrec.DataStoreListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pushes new data through the registered streaming filters
+ * every time DataStore appends data (so filtered values are ready
+ * before graphs and detectors ask for them).
+ * Filters are updated in the order they were added
+ */
+public class StreamingFilterGroup implements DataStoreListener {
+    private List<StreamingFilter> filters = new ArrayList<StreamingFilter>();
+
+    public void add(StreamingFilter filter) {
+        filters.add(filter);
+    }
+
+    public void remove(StreamingFilter filter) {
+        filters.remove(filter);
+    }
+
+    public void update() {
+        for (StreamingFilter filter : filters) {
+            filter.update();
+        }
+    }
+
+    @Override
+    public void onDataUpdate() {
+        update();
+    }
+}
@@ -0,0 +1,25 @@
+package filters.streaming;
+
+import data.DataSeries;
+
+/**
+ * Streaming version of FilterHiPass: value minus the average of the last (bufferSize + 1) values.
+ * The sum of the window is updated on every new value instead of being recalculated
+ */
+public class StreamingHiPass extends StreamingFilter {
+    private HiPassStage stage;
+
+    public StreamingHiPass(DataSeries inputData, int bufferSize) {
+        this(inputData, bufferSize, -1);
+    }
+
+    public StreamingHiPass(DataSeries inputData, int bufferSize, int ringCapacity) {
+        super(inputData, ringCapacity);
+        stage = new HiPassStage(bufferSize);
+    }
+
+    @Override
+    protected void process(int[] values, int length) {
+        stage.process(values, length);
+    }
+}
@@ -0,0 +1,30 @@
+package filters.streaming;
+
+import data.DataSeries;
+
+/**
+ * Streaming version of Rising: difference between max and min values
+ * on the last (step + 1) points.
+ * Max and min are tracked with monotonic deques so every value costs amortized O(1)
+ */
+public class StreamingRising extends StreamingFilter {
+    private RisingStage stage;
+
+    public StreamingRising(DataSeries inputData) {
+        this(inputData, 2);
+    }
+
+    public StreamingRising(DataSeries inputData, int step) {
+        this(inputData, step, -1);
+    }
+
+    public StreamingRising(DataSeries inputData, int step, int ringCapacity) {
+        super(inputData, ringCapacity);
+        stage = new RisingStage(step);
+    }
+
+    @Override
+    protected void process(int[] values, int length) {
+        stage.process(values, length);
+    }
+}
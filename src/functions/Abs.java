@@ -15,4 +15,17 @@ public class Abs extends Function {
     public int get(int index) {
         return Math.abs(inputData.get(index));
     }
+
+    @Override
+    public void get(int fromIndex, int[] dest, int destOffset, int length) {
+        inputData.get(fromIndex, dest, destOffset, length);
+        for (int i = destOffset; i < destOffset + length; i++) {
+            dest[i] = Math.abs(dest[i]);
+        }
+    }
+
+    @Override
+    public boolean isAppendOnly() {
+        return inputData.isAppendOnly();
+    }
 }
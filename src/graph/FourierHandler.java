@@ -8,15 +8,19 @@ import fft.FourierViewer;
 import filters.FilterFourierIntegral;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Created by mac on 04/03/15.
  */
 public class FourierHandler implements FourierListener, GraphControllerListener {
+    private static final double FOURIER_TIME = 6; // sec
     private GraphModel graphModel;
     private List<DataSeries> graphList = new ArrayList<DataSeries>();
     private List<FourierViewer> fourierViewerList = new ArrayList<FourierViewer>();
+    // start index and length of the data the shown fourier was calculated for
+    private List<int[]> fourierRangeList = new ArrayList<int[]>();
 
 
     public FourierHandler(GraphModel graphModel) {
@@ -26,16 +30,56 @@ public class FourierHandler implements FourierListener, GraphControllerListener
     @Override
     public void doFourier(DataSeries graph, int startIndex) {
         graphList.add(graph);
+        fourierRangeList.add(getFourierRange(graph));
         fourierViewerList.add(new FourierViewer(calculateFourier(graph)));
     }
 
+    /**
+     * Fourier is recalculated only if the data range it depends on was changed
+     * (slot was moved or new data were appended inside the range)
+     */
     @Override
     public void dataUpdated() {
          for(int i = 0; i < fourierViewerList.size(); i++) {
-             fourierViewerList.get(i).showGraph(calculateFourier(graphList.get(i)));
+             int[] range = getFourierRange(graphList.get(i));
+             if (!Arrays.equals(range, fourierRangeList.get(i))) {
+                 fourierRangeList.set(i, range);
+                 fourierViewerList.get(i).showGraph(calculateFourier(graphList.get(i)));
+             }
          }
     }
 
+    /**
+     * Fourier is recalculated only if the slot was moved or
+     * the appended data range intersects the fourier range
+     */
+    @Override
+    public void dataAppended(int fromIndex, int toIndex) {
+        int startIndex = graphModel.getStartIndex();
+        for(int i = 0; i < fourierViewerList.size(); i++) {
+            DataSeries graph = graphList.get(i);
+            boolean isRangeAppended = fromIndex < startIndex + getFourierLength(graph) && toIndex > startIndex;
+            if (fourierRangeList.get(i)[0] != startIndex || isRangeAppended) {
+                fourierRangeList.set(i, getFourierRange(graph));
+                fourierViewerList.get(i).showGraph(calculateFourier(graph));
+            }
+        }
+    }
+
+    private int[] getFourierRange(DataSeries graph) {
+        int startIndex = graphModel.getStartIndex();
+        int length = Math.min(getFourierLength(graph), graph.size() - startIndex);
+        return new int[] {startIndex, length};
+    }
+
+    private int getFourierLength(DataSeries graph) {
+        double frequency = 1;
+        if(graph.getScaling() != null) {
+            frequency = 1 / graph.getScaling().getSamplingInterval();
+        }
+        return (int) (frequency * FOURIER_TIME);
+    }
+
     private DataSeries calculateFourierIntegral(DataSeries graph) {
         double time = 6; // sec
         DataSeries fourier =  Fourie.fftForward(graph, graphModel.getStartIndex(), time);
@@ -54,8 +98,7 @@ public class FourierHandler implements FourierListener, GraphControllerListener
     }
 
     private DataSeries calculateFourier(DataSeries graph) {
-        double time = 6; // sec
-        DataSeries fourier =  Fourie.fftForward(graph, graphModel.getStartIndex(), time);
+        DataSeries fourier =  Fourie.fftForward(graph, graphModel.getStartIndex(), FOURIER_TIME);
 
 
 /*        System.out.println("has Alpha " +FourierAnalizer.hasAlfa(fourier));
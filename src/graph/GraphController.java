@@ -36,6 +36,12 @@ public class GraphController implements GraphEventHandler {
         }
     }
 
+    private void fireDataAppended(int fromIndex, int toIndex) {
+        for (GraphControllerListener listener : listenerList) {
+            listener.dataAppended(fromIndex, toIndex);
+        }
+    }
+
 
     @Override
     public void moveSlotForward() {
@@ -119,4 +125,21 @@ public class GraphController implements GraphEventHandler {
         graphModel.autoScroll();
         fireDataUpdated();
     }
+
+    /**
+     * Auto scroll and notify listeners about the appended data range
+     * so they could skip updates if the range is not shown
+     *
+     * @param fromTime start of the appended data (sec from the data beginning)
+     * @param toTime   end of the appended data (sec from the data beginning)
+     */
+    public void dataAppended(double fromTime, double toTime) {
+        graphModel.autoScroll();
+        double samplingRate = graphModel.getGraphsSamplingRate();
+        if (samplingRate == 0) {
+            fireDataUpdated();
+            return;
+        }
+        fireDataAppended((int) (fromTime * samplingRate), (int) Math.ceil(toTime * samplingRate));
+    }
 }
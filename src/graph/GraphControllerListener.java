@@ -2,4 +2,12 @@ package graph;
 
 public interface GraphControllerListener {
     public void dataUpdated();
+
+    /**
+     * Called instead of dataUpdated() when new data were appended to the graphs.
+     * Appended graphs indexes: [fromIndex, toIndex)
+     */
+    public default void dataAppended(int fromIndex, int toIndex) {
+        dataUpdated();
+    }
 }
@@ -319,6 +319,23 @@ class GraphModel {
         }
     }
 
+    public double getGraphsSamplingRate() {
+        return graphsSamplingRate;
+    }
+
+    /**
+     * @return true if some graphs indexes from the range [fromIndex, toIndex)
+     * are shown in the graphs or previews panels
+     */
+    public boolean isRangeShown(int fromIndex, int toIndex) {
+        if (fromIndex < startIndex + drawingAreaWidth && toIndex > startIndex) {
+            return true;
+        }
+        double previewsStartIndex = scrollPosition * getCompression();
+        double previewsEndIndex = (scrollPosition + drawingAreaWidth) * getCompression();
+        return fromIndex < previewsEndIndex && toIndex > previewsStartIndex;
+    }
+
     public int getScrollPosition() {
         return scrollPosition;
     }
@@ -24,6 +24,11 @@ import java.util.Date;
 public class GraphPresenter implements GraphControllerListener{
     private GraphModel graphModel;
     private GraphView graphView;
+    // view state the graph panels were last updated with
+    private int shownStartIndex = -1;
+    private int shownScrollPosition = -1;
+    private int shownSlotPosition = -1;
+    private int shownSlotWidth = -1;
 
     public GraphPresenter(GraphModel graphModel, GraphView graphView) {
         this.graphModel = graphModel;
@@ -37,6 +42,10 @@ public class GraphPresenter implements GraphControllerListener{
         int newScrollValue = graphModel.getScrollPosition();
 
         graphView.setScrollData(newScrollMaximum, newScrollExtent, newScrollValue);
+        shownStartIndex = graphModel.getStartIndex();
+        shownScrollPosition = graphModel.getScrollPosition();
+        shownSlotPosition = graphModel.getSlotPosition();
+        shownSlotWidth = graphModel.getSlotWidth();
         graphView.setGraphStartIndex(graphModel.getStartIndex());
         graphView.setPreviewStartIndex(graphModel.getScrollPosition());
         graphView.setSlotPosition(graphModel.getSlotPosition());
@@ -54,4 +63,21 @@ public class GraphPresenter implements GraphControllerListener{
         }
         graphView.repaint();
     }
+
+    /**
+     * If the view was not moved only the scroll bar is updated
+     * and panels are repainted only if the appended data are visible
+     */
+    @Override
+    public void dataAppended(int fromIndex, int toIndex) {
+        if (graphModel.getStartIndex() != shownStartIndex || graphModel.getScrollPosition() != shownScrollPosition
+                || graphModel.getSlotPosition() != shownSlotPosition || graphModel.getSlotWidth() != shownSlotWidth) {
+            dataUpdated();
+            return;
+        }
+        graphView.setScrollData(graphModel.getPreviewsSize(), graphModel.getDrawingAreaWidth(), graphModel.getScrollPosition());
+        if (graphModel.isRangeShown(fromIndex, toIndex)) {
+            graphView.repaint();
+        }
+    }
 }
@@ -30,6 +30,12 @@ public class GraphViewer extends JPanel{
     private GraphController graphController;
     private GraphPresenter graphPresenter;
 
+    // appended data range not yet passed to the event dispatch thread
+    private final Object appendedRangeLock = new Object();
+    private double appendedFromTime = Double.MAX_VALUE;
+    private double appendedToTime = 0;
+    private boolean isAppendedRangePending;
+
     public GraphViewer() {
         this(true, true);
     }
@@ -239,4 +245,41 @@ public class GraphViewer extends JPanel{
             });
         }
     }
+
+    /**
+     * Auto scroll and update only what shows the appended data.
+     * Ranges appended while the previous one is waiting for
+     * the event dispatch thread are merged into one update.
+     *
+     * @param fromTime start of the appended data (sec from the data beginning)
+     * @param toTime   end of the appended data (sec from the data beginning)
+     */
+    public void dataAppended(double fromTime, double toTime) {
+        if(SwingUtilities.isEventDispatchThread()) {
+            graphController.dataAppended(fromTime, toTime);
+            return;
+        }
+        synchronized (appendedRangeLock) {
+            appendedFromTime = Math.min(appendedFromTime, fromTime);
+            appendedToTime = Math.max(appendedToTime, toTime);
+            if (isAppendedRangePending) {
+                return;
+            }
+            isAppendedRangePending = true;
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                double fromTime;
+                double toTime;
+                synchronized (appendedRangeLock) {
+                    fromTime = appendedFromTime;
+                    toTime = appendedToTime;
+                    appendedFromTime = Double.MAX_VALUE;
+                    appendedToTime = 0;
+                    isAppendedRangePending = false;
+                }
+                graphController.dataAppended(fromTime, toTime);
+            }
+        });
+    }
 }
@@ -10,6 +10,7 @@ import java.util.ArrayList;
 
 public class GraphPainter {
     private Color defaultGraphColor = Color.YELLOW;
+    private int[] values = new int[0]; // reusable buffer for the painted data
 
     public void setDefaultColor(Color graphColor) {
         defaultGraphColor = graphColor;
@@ -24,12 +25,19 @@ public class GraphPainter {
             int width = g.getClipBounds().width;
             int height = g.getClipBounds().height;
             int endPoint = Math.min(width, (graphData.size() - startIndex));
-            int value = graphData.get(startIndex);
+            // read all painted values (and the previous one for LINE) at once
+            int firstIndex = Math.max(0, startIndex - 1);
+            int shift = startIndex - firstIndex;
+            if (values.length < endPoint + shift) {
+                values = new int[endPoint + shift];
+            }
+            graphData.get(firstIndex, values, 0, endPoint + shift);
+            int value = values[shift];
             int y = (int) Math.round(zoom * value);
             VerticalLine vLine = new VerticalLine(y);
 
             for (int x = 0; x < endPoint; x++) {
-                value = graphData.get(x + startIndex);
+                value = values[x + shift];
                 y = (int) Math.round(zoom * value);
                 if(colorSelector != null && colorSelector.getColor(x + startIndex) != null) {
                     g.setColor(colorSelector.getColor(x + startIndex));
@@ -45,7 +53,7 @@ public class GraphPainter {
                     if(x + startIndex > 0) {
                        xPrevious = x - 1;
                     }
-                    int valuePrevious = graphData.get(xPrevious + startIndex);
+                    int valuePrevious = values[xPrevious + shift];
                     int yPrevious = (int) Math.round(zoom * valuePrevious);
                     g.drawLine(xPrevious, yPrevious, x, y);
                 }
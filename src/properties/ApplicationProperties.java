@@ -1,6 +1,8 @@
 package properties;
 
 import dreamrec.ApplicationException;
+import device.emulator.AdsEmulator;
+import dreamrec.BufferOverflowPolicy;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.FileConfiguration;
 import org.apache.commons.configuration.PropertiesConfiguration;
@@ -22,6 +24,22 @@ public class ApplicationProperties  {
     private static final String ACCELEROMETER_REM_FREQUENCY = "rem.accelerometer_frequency";
     private static final String EOG_REM_FREQUENCY = "rem.eog_frequency";
 
+    private static final String IS_OFF_HEAP_STORAGE = "data.is_off_heap_storage";
+    private static final String MAX_CHUNKS_IN_MEMORY = "data.max_chunks_in_memory";
+    private static final String IS_COMPRESSED_STORAGE = "data.is_compressed_storage";
+    private static final String BUFFER_OVERFLOW_POLICY = "data.buffer_overflow_policy";
+    private static final String NUMBER_OF_PROCESSING_THREADS = "data.processing_threads";
+
+    private static final String SERIAL_READER_BUFFER_SIZE = "device.serial_reader_buffer_size";
+
+    private static final String EMULATOR_FRAME_FORMAT = "emulator.frame_format";
+    private static final String EMULATOR_SPEED = "emulator.speed";
+    private static final String EMULATOR_FRAME_LOSS = "emulator.frame_loss";
+    private static final String EMULATOR_BDF_FILE = "emulator.bdf_file";
+
+    private static final String WRITE_BUFFER_SIZE = "bdf.write_buffer_size";
+    private static final String WRITE_FLUSH_PERIOD_MS = "bdf.write_flush_period_ms";
+
     private FileConfiguration config;
 
     public ApplicationProperties(File file) throws ApplicationException {
@@ -85,4 +103,82 @@ public class ApplicationProperties  {
         int defaultValue = -1;
         return config.getInt(EOG_REM_FREQUENCY, defaultValue);
     }
+
+    public boolean isOffHeapStorage() {
+        boolean defaultValue = false;
+        return config.getBoolean(IS_OFF_HEAP_STORAGE, defaultValue);
+    }
+
+    public int getMaxChunksInMemory() {
+        int defaultValue = -1;
+        return config.getInt(MAX_CHUNKS_IN_MEMORY, defaultValue);
+    }
+
+    public boolean isCompressedStorage() {
+        boolean defaultValue = false;
+        return config.getBoolean(IS_COMPRESSED_STORAGE, defaultValue);
+    }
+
+    public BufferOverflowPolicy getBufferOverflowPolicy() {
+        BufferOverflowPolicy defaultValue = BufferOverflowPolicy.BLOCK;
+        String policy = config.getString(BUFFER_OVERFLOW_POLICY, defaultValue.name());
+        try {
+            return BufferOverflowPolicy.valueOf(policy.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.error("Unknown buffer overflow policy: " + policy, e);
+            return defaultValue;
+        }
+    }
+
+    public int getNumberOfProcessingThreads() {
+        int defaultValue = 1;
+        return config.getInt(NUMBER_OF_PROCESSING_THREADS, defaultValue);
+    }
+
+    public int getSerialReaderBufferSize() {
+        int defaultValue = 0;
+        return config.getInt(SERIAL_READER_BUFFER_SIZE, defaultValue);
+    }
+
+    public int getWriteBufferSize() {
+        int defaultValue = 0;
+        return config.getInt(WRITE_BUFFER_SIZE, defaultValue);
+    }
+
+    public int getWriteFlushPeriodMs() {
+        int defaultValue = 1000;
+        return config.getInt(WRITE_FLUSH_PERIOD_MS, defaultValue);
+    }
+
+    public AdsEmulator.FrameFormat getEmulatorFrameFormat() {
+        AdsEmulator.FrameFormat defaultValue = AdsEmulator.FrameFormat.ADS2CH_V1;
+        String format = config.getString(EMULATOR_FRAME_FORMAT, defaultValue.name());
+        try {
+            return AdsEmulator.FrameFormat.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.error("Unknown emulator frame format: " + format, e);
+            return defaultValue;
+        }
+    }
+
+    public double getEmulatorSpeed() {
+        double defaultValue = 1;
+        return config.getDouble(EMULATOR_SPEED, defaultValue);
+    }
+
+    public double getEmulatorFrameLoss() {
+        double defaultValue = 0;
+        return config.getDouble(EMULATOR_FRAME_LOSS, defaultValue);
+    }
+
+    /**
+     * @return bdf file replayed by the emulator or null if synthetic signals should be generated
+     */
+    public File getEmulatorBdfFile() {
+        String filename = config.getString(EMULATOR_BDF_FILE);
+        if (filename == null || filename.trim().isEmpty()) {
+            return null;
+        }
+        return new File(filename.trim());
+    }
 }
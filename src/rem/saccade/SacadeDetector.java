@@ -3,7 +3,7 @@ package rem.saccade;
 import data.DataList;
 import data.DataSeries;
 import data.Scaling;
-import filters.FilterDerivativeRem;
+import filters.streaming.StreamingDerivativeRem;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
@@ -284,7 +284,7 @@ public class SacadeDetector {
             derivativeStepMs = (int)Math.round(eogData.getScaling().getSamplingInterval() * 1000);
         }
 
-        eogDerivative = new FilterDerivativeRem(eogData, derivativeStepMs);
+        eogDerivative = new StreamingDerivativeRem(eogData, derivativeStepMs);
         int saccadeMaxPhysValue = PEAK_VELOCITY_MAX * SENSITIVITY_MAX * derivativeStepMs / 1000;
         saccadeMaxDigitalValue = (int) (saccadeMaxPhysValue / eogData.getScaling().getDataGain());
         saccadeDurationMinPoints = timeIntervalToPoints(SACCADE_DURATION_MIN_MS);
@@ -4,6 +4,7 @@ import data.DataSeries;
 import data.Scaling;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
@@ -96,6 +97,13 @@ public class SaccadeGroupDetector {
         return groupInfoList.get(groupNumber).saccadesCount();
     }
 
+    /**
+     * @return saccades of all approved groups (group by group)
+     */
+    public List<Saccade> getSaccadeList() {
+        return Collections.unmodifiableList(saccadeList);
+    }
+
 
     private void addSacadeToGroup(Saccade saccade) {
         // debug version where all groups with number of saccade >= saccadesInGroupMin will be approved